@@ -34,5 +34,5 @@ echo "Running backend with:" \
      "DB=$POSTGRES_HOST:$POSTGRES_PORT/$POSTGRES_DB user=$POSTGRES_USER port=$SERVER_PORT profile=$SPRING_PROFILE"
 
 mvn -DskipTests -Dspring-boot.run.profiles="$SPRING_PROFILE" \
-  -Dspring-boot.run.arguments="--server.port=${SERVER_PORT} --spring.datasource.url=jdbc:postgresql://${POSTGRES_HOST}:${POSTGRES_PORT}/${POSTGRES_DB} --spring.datasource.username=${POSTGRES_USER} --spring.datasource.password=${POSTGRES_PASSWORD}" \
+  -Dspring-boot.run.arguments="--server.port=${SERVER_PORT} --spring.datasource.url=jdbc:postgresql://${POSTGRES_HOST}:${POSTGRES_PORT}/${POSTGRES_DB}?reWriteBatchedInserts=true --spring.datasource.username=${POSTGRES_USER} --spring.datasource.password=${POSTGRES_PASSWORD}" \
   spring-boot:run
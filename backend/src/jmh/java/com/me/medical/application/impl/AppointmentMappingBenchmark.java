@@ -0,0 +1,83 @@
+package com.me.medical.application.impl;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.me.medical.application.dto.AppointmentDto;
+import com.me.medical.infra.AppointmentView;
+import com.me.medical.infra.JpaAppointmentEntity;
+import com.me.medical.infra.JpaDoctorEntity;
+import com.me.medical.infra.JpaPatientEntity;
+import com.me.medical.infra.JpaSlotEntity;
+
+/**
+ * Conversão → DTO dos agendamentos: a partir da entidade (caminho de criação) e da
+ * projeção usada na listagem do paciente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppointmentMappingBenchmark {
+    private static final OffsetDateTime START = OffsetDateTime.of(2025, 9, 2, 9, 0, 0, 0, ZoneOffset.UTC);
+
+    private AppointmentServiceImpl appointmentService;
+    private JpaAppointmentEntity appointment;
+    private AppointmentView view;
+
+    @Setup
+    public void setup() {
+        // toDto não usa as dependências
+        appointmentService = new AppointmentServiceImpl(null, null, null, null, null, null, null, null, null, null);
+
+        var doctor = new JpaDoctorEntity();
+        doctor.setId(UUID.randomUUID());
+        doctor.setName("Dr. João Silva");
+        doctor.setSpecialty("Cardiologia");
+        var patient = new JpaPatientEntity();
+        patient.setId(UUID.randomUUID());
+
+        var slot = new JpaSlotEntity();
+        slot.setId(UUID.randomUUID());
+        slot.setDoctor(doctor);
+        slot.setStartTime(START);
+        slot.setEndTime(START.plusMinutes(30));
+        slot.setStatus("available");
+
+        appointment = new JpaAppointmentEntity();
+        appointment.setId(UUID.randomUUID());
+        appointment.setSlot(slot);
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setStatus("confirmed");
+        appointment.setCreatedAt(START.minusDays(1));
+
+        view = new AppointmentView(appointment.getId(), slot.getId(), doctor.getId(), patient.getId(), "confirmed",
+            appointment.getCreatedAt(), doctor.getName(), doctor.getSpecialty(), START, START.plusMinutes(30));
+    }
+
+    @Benchmark
+    public AppointmentDto appointmentEntityToDto() {
+        return appointmentService.toDto(appointment);
+    }
+
+    @Benchmark
+    public AppointmentDto appointmentViewToDto() {
+        return appointmentService.toDto(view);
+    }
+}
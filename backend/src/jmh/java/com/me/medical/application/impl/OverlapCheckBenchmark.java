@@ -0,0 +1,88 @@
+package com.me.medical.application.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.me.medical.infra.SlotInterval;
+import com.me.medical.infra.SlotRepository;
+
+/**
+ * Checagem de sobreposição de slots: índice em memória ({@link SlotOverlapIndex}) contra a
+ * varredura linear equivalente, em médicos com poucos e com muitos slots.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OverlapCheckBenchmark {
+    // agenda futura: o índice só cobre slots que terminam depois do aquecimento
+    private static final OffsetDateTime BASE = OffsetDateTime.now(ZoneOffset.UTC).plusDays(1).truncatedTo(ChronoUnit.DAYS);
+
+    @Param({"100", "10000"})
+    public int slotsPerDoctor;
+
+    private UUID doctorId;
+    private SlotOverlapIndex index;
+    private List<SlotInterval> intervals;
+
+    @Setup
+    public void setup() {
+        doctorId = UUID.randomUUID();
+        intervals = new ArrayList<>(slotsPerDoctor);
+        // slots de 30 minutos separados por 30 minutos livres
+        for (int i = 0; i < slotsPerDoctor; i++) {
+            var start = BASE.plusHours(i);
+            intervals.add(new SlotInterval(UUID.randomUUID(), start, start.plusMinutes(30)));
+        }
+
+        var slotRepository = mock(SlotRepository.class);
+        when(slotRepository.findIntervalsEndingAfter(eq(doctorId), any())).thenReturn(intervals);
+        index = new SlotOverlapIndex(slotRepository);
+        index.warm(doctorId);
+    }
+
+    @Benchmark
+    public boolean indexOverlaps() {
+        var start = randomCandidate();
+        return index.overlaps(doctorId, start, start.plusMinutes(20), null).orElseThrow();
+    }
+
+    @Benchmark
+    public boolean linearScanOverlaps() {
+        var start = randomCandidate();
+        var end = start.plusMinutes(20);
+        for (var slot : intervals) {
+            if (slot.startTime().isBefore(end) && slot.endTime().isAfter(start)) return true;
+        }
+        return false;
+    }
+
+    private OffsetDateTime randomCandidate() {
+        return BASE.plusMinutes(ThreadLocalRandom.current().nextLong(slotsPerDoctor * 60L));
+    }
+}
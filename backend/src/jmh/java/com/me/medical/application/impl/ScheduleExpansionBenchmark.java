@@ -0,0 +1,56 @@
+package com.me.medical.application.impl;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.me.medical.application.dto.ScheduleTemplateRequest;
+import com.me.medical.infra.SlotInterval;
+
+/**
+ * Expansão de um modelo semanal de agenda (12 semanas, dias úteis, 30 minutos, com almoço),
+ * etapa em memória que precede a checagem de conflitos em lote.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleExpansionBenchmark {
+    private ScheduleTemplateRequest template;
+
+    @Setup
+    public void setup() {
+        template = new ScheduleTemplateRequest();
+        template.setWeekdays(List.copyOf(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)));
+        template.setFromDate(LocalDate.of(2025, 1, 6));
+        template.setToDate(LocalDate.of(2025, 3, 28));
+        template.setDayStart(LocalTime.of(8, 0));
+        template.setDayEnd(LocalTime.of(18, 0));
+        template.setSlotMinutes(30);
+        var lunch = new ScheduleTemplateRequest.Break();
+        lunch.setStart(LocalTime.of(12, 0));
+        lunch.setEnd(LocalTime.of(13, 0));
+        template.setBreaks(List.of(lunch));
+    }
+
+    @Benchmark
+    public List<SlotInterval> expandWeeklyTemplate() {
+        return ScheduleTemplateExpander.expand(template);
+    }
+}
@@ -0,0 +1,63 @@
+package com.me.medical.application.impl;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.me.medical.application.dto.SlotDto;
+import com.me.medical.infra.JpaSlotEntity;
+
+/**
+ * Conversão entidade → DTO executada para cada slot listado.
+ *
+ * {@code metadata} alterna entre slot sem metadata e slot com JSON (repassado como
+ * {@link com.me.medical.application.dto.RawJson}, sem parse).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlotMappingBenchmark {
+    private static final OffsetDateTime START = OffsetDateTime.of(2025, 9, 2, 9, 0, 0, 0, ZoneOffset.UTC);
+
+    @Param({"none", "json"})
+    public String metadata;
+
+    private SlotServiceImpl slotService;
+    private JpaSlotEntity slot;
+
+    @Setup
+    public void setup() {
+        // toDto não usa as dependências
+        slotService = new SlotServiceImpl(null, null, null, null, null, null, null);
+
+        slot = new JpaSlotEntity();
+        slot.setId(UUID.randomUUID());
+        slot.setStartTime(START);
+        slot.setEndTime(START.plusMinutes(30));
+        slot.setStatus("available");
+        slot.setMetadata("json".equals(metadata)
+            ? "{\"room\":\"12B\",\"modality\":\"presencial\",\"notes\":\"trazer exames\",\"tags\":[\"retorno\",\"convenio\"]}"
+            : null);
+    }
+
+    @Benchmark
+    public SlotDto slotToDto() {
+        return slotService.toDto(slot);
+    }
+}
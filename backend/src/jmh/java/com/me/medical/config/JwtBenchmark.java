@@ -0,0 +1,67 @@
+package com.me.medical.config;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Emissão e validação de JWT, executadas no login e em toda requisição autenticada.
+ * {@code cachedLookup} mede o caminho do filtro quando o token já está no {@link VerifiedTokenCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+    private JwtTokenProvider tokenProvider;
+    private VerifiedTokenCache tokenCache;
+    private String userId;
+    private String profileId;
+    private String token;
+
+    @Setup
+    public void setup() {
+        var props = new JwtProperties();
+        props.setSecret("benchmark-secret-with-at-least-256-bits-of-entropy!");
+        props.setExpirationMs(3_600_000);
+        tokenProvider = new JwtTokenProvider(props);
+        tokenCache = new VerifiedTokenCache(props, new SimpleMeterRegistry());
+
+        userId = UUID.randomUUID().toString();
+        profileId = UUID.randomUUID().toString();
+        token = tokenProvider.createToken(userId, "ROLE_PATIENT", profileId);
+        var claims = tokenProvider.parseClaims(token);
+        tokenCache.put(VerifiedTokenCache.digest(token), new VerifiedTokenCache.VerifiedToken(claims.getSubject(),
+            "ROLE_PATIENT", profileId, claims.getExpiration().getTime()));
+    }
+
+    @Benchmark
+    public String createToken() {
+        return tokenProvider.createToken(userId, "ROLE_PATIENT", profileId);
+    }
+
+    @Benchmark
+    public Claims parseClaims() {
+        return tokenProvider.parseClaims(token);
+    }
+
+    @Benchmark
+    public VerifiedTokenCache.VerifiedToken cachedLookup() {
+        return tokenCache.get(VerifiedTokenCache.digest(token));
+    }
+}
@@ -1,67 +1,130 @@
 package com.me.medical.api;
 
+import java.net.URI;
+import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.me.medical.application.AppointmentService;
+import com.me.medical.application.BookingQueueFullException;
+import com.me.medical.application.IdempotencyKeyReuseException;
+import com.me.medical.application.IdempotentBookingService;
+import com.me.medical.application.QueuedBookingService;
+import com.me.medical.application.WaitlistService;
+import com.me.medical.application.dto.AgendaEntryDto;
+import com.me.medical.application.dto.AgendaPage;
 import com.me.medical.application.dto.AppointmentDto;
+import com.me.medical.application.dto.BatchAppointmentRequest;
+import com.me.medical.application.dto.BookingTicketDto;
 import com.me.medical.application.dto.CreateAppointmentRequest;
+import com.me.medical.application.dto.NextAvailableRequest;
+import com.me.medical.application.dto.SlotHoldDto;
+import com.me.medical.application.dto.WaitlistEntryDto;
+import com.me.medical.application.dto.WaitlistRequest;
+import com.me.medical.infra.DoctorRepository;
 import com.me.medical.infra.PatientRepository;
 
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 /**
- * Controller para criação de agendamentos e listagem de agendamentos do paciente.
+ * Controller para criação de agendamentos e listagem de agendamentos do paciente e do médico.
  */
 @RestController
 @RequestMapping("/api")
 @Tag(name = "Agendamentos", description = "Criação e listagem de agendamentos")
 @SecurityRequirement(name = "bearerAuth")
 public class AppointmentController {
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    static final String RESPOND_ASYNC = "respond-async";
+    private static final int MAX_TICKET_WAIT_SECONDS = 30;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     private final AppointmentService appointmentService;
+    private final IdempotentBookingService idempotentBookingService;
+    private final WaitlistService waitlistService;
+    private final QueuedBookingService queuedBookingService;
     private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(AppointmentController.class);
 
-    public AppointmentController(AppointmentService appointmentService, PatientRepository patientRepository) {
+    public AppointmentController(AppointmentService appointmentService,
+                                 IdempotentBookingService idempotentBookingService,
+                                 WaitlistService waitlistService,
+                                 QueuedBookingService queuedBookingService,
+                                 PatientRepository patientRepository,
+                                 DoctorRepository doctorRepository) {
         this.appointmentService = appointmentService;
+        this.idempotentBookingService = idempotentBookingService;
+        this.waitlistService = waitlistService;
+        this.queuedBookingService = queuedBookingService;
         this.patientRepository = patientRepository;
+        this.doctorRepository = doctorRepository;
     }
 
     /**
      * Cria um novo agendamento para o paciente autenticado.
      * O paciente só pode criar agendamentos para si mesmo.
+     *
+     * Com o header {@value #IDEMPOTENCY_KEY_HEADER}, repetições da mesma chave devolvem a
+     * resposta original (marcada com {@value #IDEMPOTENT_REPLAYED_HEADER}) em vez de 409.
+     *
+     * Com o modo fila ligado ({@code booking.queue-enabled}) e {@code Prefer: respond-async}
+     * (sem Idempotency-Key), o pedido é enfileirado: 202 com o ticket e seu endereço em
+     * {@code Location}. Fila cheia recebe 503.
      */
     @PostMapping("/appointments")
-    public ResponseEntity<?> create(@RequestBody CreateAppointmentRequest req, Authentication auth) {
+    public ResponseEntity<?> create(@RequestBody CreateAppointmentRequest req,
+                                    @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                    @RequestHeader(name = "Prefer", required = false) String prefer,
+                                    Authentication auth) {
         // paciente apenas pode criar agendamento para si mesmo (patientId do token)
         log.debug("Create appointment request received: doctorId={} slotId={} authPresent={}", req.getDoctorId(), req.getSlotId(), auth != null);
         if (!AuthUtils.isPatient(auth)) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "requires ROLE_PATIENT");
-        var userId = AuthUtils.authUserId(auth);
-        if (userId == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "invalid principal");
+        var patientId = authPatientId(auth);
 
-        // converter userId (usuário autenticado) para patientId (entidade paciente)
-        var patients = patientRepository.findByUserId(userId);
-        if (patients.isEmpty()) {
-            log.debug("No patient record found for user {}", userId);
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "patient not found");
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid Idempotency-Key");
         }
-        var patient = patients.get(0);
 
         try {
-            var created = appointmentService.createAppointment(req.getDoctorId(), req.getSlotId(), patient.getId());
+            if (idempotencyKey == null && prefer != null && prefer.contains(RESPOND_ASYNC) && queuedBookingService.isEnabled()) {
+                var ticket = queuedBookingService.submit(req.getDoctorId(), req.getSlotId(), patientId);
+                return ResponseEntity.accepted()
+                    .location(URI.create("/api/appointments/tickets/" + ticket.getId()))
+                    .header("Preference-Applied", RESPOND_ASYNC)
+                    .body(ticket);
+            }
+            if (idempotencyKey != null) {
+                var result = idempotentBookingService.createAppointment(req.getDoctorId(), req.getSlotId(), patientId, idempotencyKey);
+                var response = ResponseEntity.status(result.status());
+                if (result.replayed()) response.header(IDEMPOTENT_REPLAYED_HEADER, "true");
+                return response.body(result.body());
+            }
+            var created = appointmentService.createAppointment(req.getDoctorId(), req.getSlotId(), patientId);
             return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (IdempotencyKeyReuseException e) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage());
+        } catch (BookingQueueFullException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
         } catch (IllegalArgumentException e) {
             log.debug("Appointment create failed (bad request): {}", e.getMessage());
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
@@ -76,23 +139,213 @@ public class AppointmentController {
     }
 
     /**
-     * Lista todos os agendamentos do paciente autenticado.
+     * Reserva vários slots (de um ou mais médicos) para o paciente autenticado: todos ou
+     * nenhum. Qualquer slot indisponível recebe 409 e nada é reservado.
      */
-    @GetMapping("/appointments/my")
-    public ResponseEntity<List<AppointmentDto>> listMyAppointments(Authentication auth) {
+    @PostMapping("/appointments/batch")
+    public ResponseEntity<List<AppointmentDto>> createBatch(@RequestBody BatchAppointmentRequest req, Authentication auth) {
         if (!AuthUtils.isPatient(auth)) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "requires ROLE_PATIENT");
-        var userId = AuthUtils.authUserId(auth);
-        if (userId == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "invalid principal");
+        var patientId = authPatientId(auth);
 
-        // converter userId para patientId
-        var patients = patientRepository.findByUserId(userId);
-        if (patients.isEmpty()) {
-            log.debug("No patient record found for user {}", userId);
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "patient not found");
+        try {
+            var created = appointmentService.createAppointments(req.getItems(), patientId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    /**
+     * Consulta o ticket de uma reserva enfileirada do paciente autenticado. Com {@code wait}
+     * (segundos, até {@value #MAX_TICKET_WAIT_SECONDS}) a resposta só sai quando o ticket é
+     * processado ou o prazo acaba, sem ocupar uma thread do servidor durante a espera.
+     */
+    @GetMapping("/appointments/tickets/{ticketId}")
+    public CompletableFuture<BookingTicketDto> ticket(@PathVariable UUID ticketId,
+                                                      @RequestParam(defaultValue = "0") int wait,
+                                                      Authentication auth) {
+        if (!AuthUtils.isPatient(auth)) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "requires ROLE_PATIENT");
+        var patientId = authPatientId(auth);
+        var timeout = Duration.ofSeconds(Math.max(0, Math.min(wait, MAX_TICKET_WAIT_SECONDS)));
+
+        try {
+            return queuedBookingService.await(ticketId, patientId, timeout);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (SecurityException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
+        }
+    }
+
+    /**
+     * Reserva para o paciente autenticado o primeiro slot disponível do médico ou da
+     * especialidade dentro da janela. Pedidos simultâneos recebem slots diferentes.
+     */
+    @PostMapping("/appointments/next-available")
+    public ResponseEntity<AppointmentDto> bookNextAvailable(@RequestBody NextAvailableRequest req, Authentication auth) {
+        if (!AuthUtils.isPatient(auth)) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "requires ROLE_PATIENT");
+        var patientId = authPatientId(auth);
+
+        try {
+            var created = appointmentService.bookNextAvailable(req.getDoctorId(), req.getSpecialty(), req.getFrom(),
+                req.getTo(), patientId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    /**
+     * Retém um slot para o paciente autenticado por alguns minutos, sem reservá-lo.
+     * Enquanto o hold vale, outros pacientes recebem 409 ao tentar o mesmo slot.
+     */
+    @PostMapping("/appointments/holds")
+    public ResponseEntity<SlotHoldDto> hold(@RequestBody CreateAppointmentRequest req, Authentication auth) {
+        if (!AuthUtils.isPatient(auth)) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "requires ROLE_PATIENT");
+        var patientId = authPatientId(auth);
+
+        try {
+            var hold = appointmentService.holdSlot(req.getDoctorId(), req.getSlotId(), patientId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    /**
+     * Confirma o hold do paciente autenticado, criando o agendamento.
+     */
+    @PostMapping("/appointments/holds/{slotId}/confirm")
+    public ResponseEntity<AppointmentDto> confirmHold(@PathVariable UUID slotId, Authentication auth) {
+        if (!AuthUtils.isPatient(auth)) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "requires ROLE_PATIENT");
+        var patientId = authPatientId(auth);
+
+        try {
+            var created = appointmentService.confirmHold(slotId, patientId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    /**
+     * Desiste do hold do paciente autenticado, liberando o slot.
+     */
+    @DeleteMapping("/appointments/holds/{slotId}")
+    public ResponseEntity<Void> releaseHold(@PathVariable UUID slotId, Authentication auth) {
+        if (!AuthUtils.isPatient(auth)) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "requires ROLE_PATIENT");
+        appointmentService.releaseHold(slotId, authPatientId(auth));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Cancela um agendamento do paciente autenticado; o slot volta a ficar disponível e é
+     * oferecido à lista de espera do médico.
+     */
+    @PostMapping("/appointments/{appointmentId}/cancel")
+    public ResponseEntity<AppointmentDto> cancel(@PathVariable UUID appointmentId, Authentication auth) {
+        if (!AuthUtils.isPatient(auth)) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "requires ROLE_PATIENT");
+        var patientId = authPatientId(auth);
+
+        try {
+            return ResponseEntity.ok(appointmentService.cancelAppointment(appointmentId, patientId));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (SecurityException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    /**
+     * Move um agendamento do paciente autenticado para outro slot numa única operação: o slot
+     * antigo só é liberado se o novo for reservado.
+     */
+    @PostMapping("/appointments/{appointmentId}/reschedule")
+    public ResponseEntity<AppointmentDto> reschedule(@PathVariable UUID appointmentId,
+                                                     @RequestBody CreateAppointmentRequest req,
+                                                     Authentication auth) {
+        if (!AuthUtils.isPatient(auth)) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "requires ROLE_PATIENT");
+        var patientId = authPatientId(auth);
+
+        try {
+            return ResponseEntity.ok(appointmentService.rescheduleAppointment(appointmentId, req.getDoctorId(),
+                req.getSlotId(), patientId));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (SecurityException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    /**
+     * Coloca o paciente autenticado na lista de espera de um médico. Quando um slot dentro da
+     * janela for liberado, ele é reservado automaticamente para o primeiro da fila.
+     */
+    @PostMapping("/appointments/waitlist")
+    public ResponseEntity<WaitlistEntryDto> joinWaitlist(@RequestBody WaitlistRequest req, Authentication auth) {
+        if (!AuthUtils.isPatient(auth)) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "requires ROLE_PATIENT");
+        var patientId = authPatientId(auth);
+
+        try {
+            var entry = waitlistService.join(req.getDoctorId(), patientId, req.getFrom(), req.getTo());
+            return ResponseEntity.status(HttpStatus.CREATED).body(entry);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Lista as entradas pendentes do paciente autenticado na lista de espera.
+     */
+    @GetMapping("/appointments/waitlist")
+    public ResponseEntity<List<WaitlistEntryDto>> listWaitlist(Authentication auth) {
+        if (!AuthUtils.isPatient(auth)) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "requires ROLE_PATIENT");
+        return ResponseEntity.ok(waitlistService.listWaiting(authPatientId(auth)));
+    }
+
+    /**
+     * Retira o paciente autenticado da lista de espera.
+     */
+    @DeleteMapping("/appointments/waitlist/{entryId}")
+    public ResponseEntity<Void> leaveWaitlist(@PathVariable UUID entryId, Authentication auth) {
+        if (!AuthUtils.isPatient(auth)) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "requires ROLE_PATIENT");
+        var patientId = authPatientId(auth);
+
+        try {
+            waitlistService.leave(entryId, patientId);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (SecurityException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
         }
-        var patient = patients.get(0);
+    }
+
+    /**
+     * Lista os agendamentos do paciente autenticado, paginados e ordenados pelo início da consulta.
+     */
+    @GetMapping("/appointments/my")
+    public ResponseEntity<List<AppointmentDto>> listMyAppointments(@RequestParam(defaultValue = "0") int page,
+                                                                   @RequestParam(defaultValue = "100") int size,
+                                                                   Authentication auth) {
+        if (!AuthUtils.isPatient(auth)) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "requires ROLE_PATIENT");
+        var patientId = authPatientId(auth);
 
-        var list = appointmentService.listByPatient(patient.getId());
+        var list = appointmentService.listByPatient(patientId, page, size);
         return ResponseEntity.ok(list);
     }
 
@@ -100,13 +353,85 @@ public class AppointmentController {
      * Lista agendamentos de um paciente específico (apenas o próprio paciente pode acessar).
      */
     @GetMapping("/patients/{patientId}/appointments")
-    public ResponseEntity<List<AppointmentDto>> listByPatient(@PathVariable UUID patientId, Authentication auth) {
+    public ResponseEntity<List<AppointmentDto>> listByPatient(@PathVariable UUID patientId,
+                                                              @RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(defaultValue = "100") int size,
+                                                              Authentication auth) {
         // pacientes só podem listar seus próprios agendamentos
         var userId = AuthUtils.authUserId(auth);
         if (userId == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "invalid principal");
-        if (!userId.equals(patientId)) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "can only list own appointments");
+        if (!patientId.equals(AuthUtils.authProfileId(auth)) && !userId.equals(patientId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "can only list own appointments");
+        }
 
-        var list = appointmentService.listByPatient(patientId);
+        var list = appointmentService.listByPatient(patientId, page, size);
         return ResponseEntity.ok(list);
     }
+
+    /**
+     * Agenda do médico: agendamentos ativos com início em [from, to), paginados por
+     * (start, slotId), já com o nome do paciente. Quando houver mais resultados, o cursor da
+     * próxima página vem no header {@value SlotController#NEXT_CURSOR_HEADER}.
+     * Apenas o próprio médico vê sua agenda.
+     */
+    @GetMapping("/doctors/{doctorId}/appointments")
+    public ResponseEntity<List<AgendaEntryDto>> listByDoctor(@PathVariable UUID doctorId,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer limit,
+                                                             Authentication auth) {
+        requireDoctorOwner(auth, doctorId);
+
+        AgendaPage page;
+        try {
+            page = appointmentService.listByDoctor(doctorId, from, to, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        var response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) response.header(SlotController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        return response.body(page.getItems());
+    }
+
+    /**
+     * Exige que o usuário seja o médico dono da agenda; com o id de perfil no token não acessa o banco.
+     */
+    private void requireDoctorOwner(Authentication auth, UUID doctorId) {
+        if (!AuthUtils.isDoctor(auth)) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "requires ROLE_DOCTOR");
+        var profileId = AuthUtils.authProfileId(auth);
+        if (profileId != null) {
+            if (!profileId.equals(doctorId)) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "not owner");
+            return;
+        }
+
+        var userId = AuthUtils.authUserId(auth);
+        if (userId == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "invalid principal");
+        var doctor = doctorRepository.findById(doctorId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "doctor not found"));
+        var ownerUser = doctor.getUser();
+        if (ownerUser == null || !ownerUser.getId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "not owner");
+        }
+    }
+
+    /**
+     * Resolve o patientId do usuário autenticado: usa o id de perfil do token e só
+     * consulta o banco para tokens emitidos sem esse claim.
+     */
+    private UUID authPatientId(Authentication auth) {
+        var profileId = AuthUtils.authProfileId(auth);
+        if (profileId != null) return profileId;
+
+        var userId = AuthUtils.authUserId(auth);
+        if (userId == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "invalid principal");
+
+        // converter userId (usuário autenticado) para patientId (entidade paciente)
+        var patients = patientRepository.findByUserId(userId);
+        if (patients.isEmpty()) {
+            log.debug("No patient record found for user {}", userId);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "patient not found");
+        }
+        return patients.get(0).getId();
+    }
 }
@@ -2,12 +2,15 @@ package com.me.medical.api;
 
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.me.medical.application.AuthOverloadedException;
 import com.me.medical.application.AuthService;
 import com.me.medical.application.dto.LoginRequest;
 import com.me.medical.application.dto.RegisterRequest;
@@ -24,6 +27,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 @RequestMapping("/api/auth")
 @Tag(name = "Autenticação", description = "Endpoints para autenticação e registro")
 public class AuthController {
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     private final AuthService authService;
 
     public AuthController(AuthService authService) {
@@ -36,8 +41,12 @@ public class AuthController {
      */
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
-        var response = authService.login(request.getEmail(), request.getPassword());
-        return ResponseEntity.ok(response);
+        try {
+            var response = authService.login(request.getEmail(), request.getPassword());
+            return ResponseEntity.ok(response);
+        } catch (AuthOverloadedException e) {
+            return tooManyRequests(e);
+        }
     }
 
     /**
@@ -45,15 +54,19 @@ public class AuthController {
      */
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterRequest request) {
-        var response = authService.register(
-            request.getName(), 
-            request.getEmail(), 
-            request.getPassword(), 
-            request.getRole(), 
-            request.getSpecialty(), 
-            request.getPhone()
-        );
-        return ResponseEntity.ok(response);
+        try {
+            var response = authService.register(
+                request.getName(), 
+                request.getEmail(), 
+                request.getPassword(), 
+                request.getRole(), 
+                request.getSpecialty(), 
+                request.getPhone()
+            );
+            return ResponseEntity.ok(response);
+        } catch (AuthOverloadedException e) {
+            return tooManyRequests(e);
+        }
     }
 
     /**
@@ -64,4 +77,13 @@ public class AuthController {
         boolean exists = authService.emailExists(email);
         return ResponseEntity.ok(Map.of("exists", exists));
     }
+
+    /**
+     * Pool de hashing saturado: descarta a requisição e sugere nova tentativa em seguida.
+     */
+    private ResponseEntity<?> tooManyRequests(AuthOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+            .body(Map.of("error", e.getMessage()));
+    }
 }
@@ -5,6 +5,8 @@ import java.util.UUID;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 
+import com.me.medical.config.AuthenticatedUser;
+
 /**
  * Utilitários relacionados a Authentication usados pelos controllers.
  */
@@ -13,12 +15,14 @@ public final class AuthUtils {
     }
 
     /**
-     * Converte Authentication.getPrincipal() (esperado como String UUID) para UUID.
+     * Retorna o id do usuário do principal ({@link AuthenticatedUser} ou String UUID).
      * Retorna null se a conversão falhar ou se auth for nulo.
      */
     public static UUID authUserId(Authentication auth) {
         if (auth == null)
             return null;
+        if (auth.getPrincipal() instanceof AuthenticatedUser user)
+            return user.userId();
         try {
             return UUID.fromString((String) auth.getPrincipal());
         } catch (Exception e) {
@@ -26,6 +30,17 @@ public final class AuthUtils {
         }
     }
 
+    /**
+     * Retorna o id do perfil (doctor/patient) carregado no token, sem acessar o banco.
+     * Retorna null para tokens emitidos sem o claim de perfil; o chamador deve então
+     * resolver o perfil pelo id do usuário.
+     */
+    public static UUID authProfileId(Authentication auth) {
+        if (auth != null && auth.getPrincipal() instanceof AuthenticatedUser user)
+            return user.profileId();
+        return null;
+    }
+
     /**
      * Verifica se o Authentication contém a role informada (ex: "ROLE_DOCTOR").
      */
@@ -70,9 +70,8 @@ public class DoctorController {
         }
         if (!isDoctor) return ResponseEntity.status(403).build();
 
-        UUID userId;
-        try { userId = UUID.fromString((String) auth.getPrincipal()); }
-        catch (Exception e) { return ResponseEntity.status(401).build(); }
+        UUID userId = AuthUtils.authUserId(auth);
+        if (userId == null) return ResponseEntity.status(401).build();
 
         var list = doctorRepository.findByUserId(userId);
         if (list.isEmpty()) return ResponseEntity.status(404).build();
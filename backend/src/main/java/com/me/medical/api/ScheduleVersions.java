@@ -0,0 +1,47 @@
+package com.me.medical.api;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.me.medical.application.dto.SlotEvent;
+
+/**
+ * Versão da agenda de cada médico, mantida em memória e usada como ETag das listagens de slots.
+ *
+ * A versão é incrementada a cada {@link SlotEvent}, que os services publicam somente após o
+ * commit: quem lê a versão antes de carregar os slots nunca associa dados antigos a uma
+ * versão nova. O ETag inclui um identificador sorteado na inicialização, então versões de
+ * outro processo (ou de antes de um restart) nunca coincidem com as atuais. Assim como o
+ * índice de sobreposição, supõe uma única instância escrevendo a agenda.
+ */
+@Component
+public class ScheduleVersions {
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final ConcurrentHashMap<UUID, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Versão atual da agenda do médico (0 até a primeira mudança neste processo).
+     */
+    public long current(UUID doctorId) {
+        var version = versions.get(doctorId);
+        return version == null ? 0 : version.get();
+    }
+
+    @EventListener
+    public void onSlotEvent(SlotEvent event) {
+        versions.computeIfAbsent(event.doctorId(), id -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * ETag forte para a agenda do médico na versão informada. {@code variant} distingue
+     * representações diferentes da mesma URL (ex.: visão do dono e visão pública).
+     */
+    public String etag(long version, String variant) {
+        return "\"" + epoch + "-" + version + "-" + variant + "\"";
+    }
+}
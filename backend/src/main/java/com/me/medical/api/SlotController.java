@@ -1,10 +1,16 @@
 package com.me.medical.api;
 
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,12 +20,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.me.medical.application.SlotOverlapException;
 import com.me.medical.application.SlotService;
+import com.me.medical.application.dto.ScheduleTemplateRequest;
 import com.me.medical.application.dto.SlotDto;
+import com.me.medical.application.dto.SlotPage;
 import com.me.medical.infra.DoctorRepository;
 
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -33,13 +44,20 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @Tag(name = "Slots", description = "Gerenciamento de horários disponíveis dos médicos")
 @SecurityRequirement(name = "bearerAuth")
 public class SlotController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final SlotService slotService;
     private final DoctorRepository doctorRepository;
+    private final SlotEventStream slotEvents;
+    private final ScheduleVersions scheduleVersions;
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(SlotController.class);
 
-    public SlotController(SlotService slotService, DoctorRepository doctorRepository) {
+    public SlotController(SlotService slotService, DoctorRepository doctorRepository, SlotEventStream slotEvents,
+                          ScheduleVersions scheduleVersions) {
         this.slotService = slotService;
         this.doctorRepository = doctorRepository;
+        this.slotEvents = slotEvents;
+        this.scheduleVersions = scheduleVersions;
     }
 
     /**
@@ -58,30 +76,72 @@ public class SlotController {
     }
 
     /**
-     * Lista os slots do médico.
+     * Gera em lote os slots de um modelo semanal de agenda (dias, expediente, duração, intervalos).
+     * Tudo ou nada: se algum slot gerado conflitar com um existente, nada é criado.
+     * Apenas o próprio médico pode publicar sua agenda.
+     */
+    @PostMapping("/schedule")
+    public ResponseEntity<?> generate(@PathVariable UUID doctorId, @RequestBody ScheduleTemplateRequest template, Authentication auth) {
+        requireDoctorAndOwner(auth, doctorId);
+        try {
+            int created = slotService.generateSlots(doctorId, template);
+            return ResponseEntity.status(201).body(Map.of("created", created));
+        } catch (SlotOverlapException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Lista os slots do médico em uma janela de tempo, paginados por (start, id).
      * Médicos proprietários veem todos os slots, outros usuários veem apenas slots disponíveis.
+     * Quando houver mais resultados, o cursor da próxima página vem no header {@value #NEXT_CURSOR_HEADER}.
+     *
+     * A resposta leva como ETag a versão da agenda do médico ({@link ScheduleVersions}). Um
+     * {@code If-None-Match} com a versão atual recebe 304 sem nenhuma consulta aos slots.
      */
     @GetMapping
-    public ResponseEntity<List<SlotDto>> list(@PathVariable UUID doctorId, Authentication auth) {
-        // listagem dos slots do médico é permitida por ele
+    public ResponseEntity<List<SlotDto>> list(@PathVariable UUID doctorId,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer limit,
+                                              Authentication auth,
+                                              WebRequest request) {
         // médicos donos veem todos os slots, pacientes e público veem somente slots disponíveis
-        if (AuthUtils.isDoctor(auth)) {
-            var userId = AuthUtils.authUserId(auth);
-            if (userId != null) {
-                var doctor = doctorRepository.findById(doctorId)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "doctor not found"));
-                var ownerUser = doctor.getUser();
-                if (ownerUser != null && ownerUser.getId().equals(userId)) {
-                    return ResponseEntity.ok(slotService.listSlots(doctorId));
-                }
-            }
+        String status = isOwner(auth, doctorId) ? null : "available";
+
+        // a versão é lida antes da consulta: uma mudança concorrente só pode tornar o ETag mais antigo
+        var etag = scheduleVersions.etag(scheduleVersions.current(doctorId), etagVariant(status, from, cursor));
+        if (request.checkNotModified(etag)) return null;
+
+        SlotPage page;
+        try {
+            page = slotService.listSlots(doctorId, status, from, to, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
 
-        var all = slotService.listSlots(doctorId);
-        var available = all.stream()
-            .filter(s -> s.getStatus() != null && "available".equalsIgnoreCase(s.getStatus()))
-            .collect(Collectors.toList());
-        return ResponseEntity.ok(available);
+        var response = ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .varyBy(HttpHeaders.AUTHORIZATION);
+        if (page.getNextCursor() != null) response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        return response.body(page.getItems());
+    }
+
+    /**
+     * Stream SSE das mudanças na agenda do médico: slot-created, slot-updated, slot-booked,
+     * slot-released e slot-deleted, cada um com o slot afetado em JSON. Substitui o polling da listagem: o
+     * cliente carrega a lista uma vez e aplica os eventos incrementalmente.
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable UUID doctorId) {
+        if (!doctorRepository.existsById(doctorId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "doctor not found");
+        }
+        return slotEvents.subscribe(doctorId);
     }
 
     /**
@@ -110,8 +170,44 @@ public class SlotController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Parte do ETag que depende da requisição: visão (dono ou pública) e, quando a janela começa
+     * no instante atual, o minuto usado pelo service como início.
+     */
+    private static String etagVariant(String status, OffsetDateTime from, String cursor) {
+        var scope = status == null ? "all" : status;
+        if (from != null || cursor != null) return scope;
+        return scope + "-" + OffsetDateTime.now().truncatedTo(ChronoUnit.MINUTES).toEpochSecond() / 60;
+    }
+
+    private boolean isOwner(Authentication auth, UUID doctorId) {
+        if (!AuthUtils.isDoctor(auth)) return false;
+        var profileId = AuthUtils.authProfileId(auth);
+        if (profileId != null) return profileId.equals(doctorId);
+
+        var userId = AuthUtils.authUserId(auth);
+        if (userId == null) return false;
+        var doctor = doctorRepository.findById(doctorId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "doctor not found"));
+        var ownerUser = doctor.getUser();
+        return ownerUser != null && ownerUser.getId().equals(userId);
+    }
+
+    /**
+     * Exige que o usuário seja o médico dono da agenda. Com o id de perfil no token a
+     * checagem não acessa o banco; tokens sem esse claim ainda consultam o médico.
+     */
     private void requireDoctorAndOwner(Authentication auth, UUID doctorId) {
         if (!AuthUtils.isDoctor(auth)) throw new ResponseStatusException(HttpStatus.FORBIDDEN, "requires ROLE_DOCTOR");
+        var profileId = AuthUtils.authProfileId(auth);
+        if (profileId != null) {
+            if (!profileId.equals(doctorId)) {
+                log.debug("requireDoctorAndOwner failed: profileId={} doctorId={}", profileId, doctorId);
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "not owner");
+            }
+            return;
+        }
+
         var userId = AuthUtils.authUserId(auth);
         if (userId == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "invalid principal");
 
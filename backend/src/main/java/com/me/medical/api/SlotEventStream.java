@@ -0,0 +1,228 @@
+package com.me.medical.api;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.me.medical.application.dto.SlotEvent;
+import com.me.medical.config.SlotEventProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Assinaturas SSE por médico e fan-out dos {@link SlotEvent} publicados pelos services.
+ *
+ * Cada assinatura é um {@link SseEmitter} assíncrono: a thread da requisição é devolvida ao
+ * container logo após o subscribe, então assinantes ociosos não ocupam threads. Cada assinante
+ * tem um buffer limitado de eventos, esvaziado por uma tarefa própria no pool de envio; a
+ * thread que fez o commit apenas enfileira, sem nunca chamar o {@code send} bloqueante. Um
+ * cliente parado trava só a própria tarefa: quando o buffer dele enche, ele é desconectado e
+ * os demais seguem recebendo. Um heartbeat periódico detecta conexões mortas, que são
+ * removidas no primeiro erro de escrita.
+ */
+@Component
+public class SlotEventStream implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(SlotEventStream.class);
+    static final long EMITTER_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(30);
+    private static final long HEARTBEAT_SECONDS = 25;
+
+    private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final SlotEventProperties properties;
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService heartbeat;
+
+    public SlotEventStream(MeterRegistry registry, SlotEventProperties properties) {
+        this.properties = properties;
+        // no máximo uma tarefa por assinante, então o limite de assinaturas limita as threads
+        this.senders = new ThreadPoolExecutor(0, properties.getMaxSubscribers(), 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), r -> daemon(r, "slot-events"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "slot-events-heartbeat"));
+        this.heartbeat.scheduleAtFixedRate(this::sendHeartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+        registry.gauge("slot.events.subscribers", Tags.empty(), subscriberCount);
+    }
+
+    /**
+     * Registra um assinante dos eventos do médico. O emitter expira após
+     * {@value #EMITTER_TIMEOUT_MS} ms; o EventSource do navegador reconecta sozinho.
+     *
+     * @throws ResponseStatusException 429 quando o limite de assinaturas (total ou do médico)
+     *         foi atingido
+     */
+    public SseEmitter subscribe(UUID doctorId) {
+        return subscribe(doctorId, new SseEmitter(EMITTER_TIMEOUT_MS));
+    }
+
+    SseEmitter subscribe(UUID doctorId, SseEmitter emitter) {
+        if (subscriberCount.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscriberCount.decrementAndGet();
+            throw tooManySubscribers();
+        }
+        var subscriber = new Subscriber(doctorId, emitter, properties.getBufferSize());
+        try {
+            // adiciona dentro do compute para não competir com a remoção do conjunto vazio
+            subscribers.compute(doctorId, (id, set) -> {
+                var current = set != null ? set : ConcurrentHashMap.<Subscriber>newKeySet();
+                if (current.size() >= properties.getMaxSubscribersPerDoctor()) throw tooManySubscribers();
+                current.add(subscriber);
+                return current;
+            });
+        } catch (ResponseStatusException e) {
+            subscriberCount.decrementAndGet();
+            throw e;
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        return emitter;
+    }
+
+    /**
+     * Recebe o evento publicado após o commit e o coloca no buffer de cada assinante do médico,
+     * sem bloquear quem publicou.
+     */
+    @EventListener
+    public void onSlotEvent(SlotEvent event) {
+        var set = subscribers.get(event.doctorId());
+        if (set == null) return;
+        var id = Long.toString(sequence.incrementAndGet());
+        for (var subscriber : set) {
+            subscriber.offer(SseEmitter.event()
+                .id(id)
+                .name(event.type())
+                .data(event, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void sendHeartbeat() {
+        subscribers.values().forEach(set -> set.forEach(s -> s.offer(SseEmitter.event().comment("ping"))));
+    }
+
+    private static ResponseStatusException tooManySubscribers() {
+        return new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "too many subscribers");
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        var t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    @Override
+    public void destroy() {
+        heartbeat.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(Subscriber::disconnect));
+        senders.shutdown();
+    }
+
+    /**
+     * Um emitter com seu buffer. Só a tarefa de envio chama {@code send}/{@code complete}, que
+     * são sincronizados no emitter: quem enfileira ou desconecta nunca espera um cliente lento.
+     */
+    private final class Subscriber {
+        private final UUID doctorId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(UUID doctorId, SseEmitter emitter, int bufferSize) {
+            this.doctorId = doctorId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) return;
+            if (!buffer.offer(event)) {
+                log.warn("Slot event subscriber of doctor {} is not keeping up, disconnecting", doctorId);
+                close();
+            }
+            scheduleDrain();
+        }
+
+        /**
+         * Desconecta sem esperar: se uma tarefa de envio está em andamento, ela encerra o
+         * emitter ao terminar; senão uma nova tarefa o faz.
+         */
+        void disconnect() {
+            close();
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) return;
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // pool no limite (threads ainda presas em clientes já desconectados) ou encerrado
+                draining.set(false);
+                close();
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = buffer.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // cliente desconectado ou emitter já encerrado
+                close();
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (closed.get()) {
+                emitter.complete();
+            } else if (!buffer.isEmpty()) {
+                // evento enfileirado entre o último poll e a liberação do draining
+                scheduleDrain();
+            }
+        }
+
+        /**
+         * Remove a assinatura e descarta o buffer; o emitter é encerrado pela tarefa de envio.
+         */
+        void close() {
+            if (!closed.compareAndSet(false, true)) return;
+            subscriberCount.decrementAndGet();
+            buffer.clear();
+            subscribers.computeIfPresent(doctorId, (id, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+}
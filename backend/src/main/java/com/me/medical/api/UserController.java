@@ -36,7 +36,7 @@ public class UserController {
      * Retorna os dados do perfil do usuário autenticado.
      */
     @GetMapping("/profile")
-    public ResponseEntity<?> getProfile(@AuthenticationPrincipal String userEmail) {
+    public ResponseEntity<?> getProfile(@AuthenticationPrincipal(expression = "name") String userEmail) {
         log.debug("GET /profile called for user: {}", userEmail);
         var profile = userService.getProfile(userEmail);
         return ResponseEntity.ok(profile);
@@ -47,7 +47,7 @@ public class UserController {
      */
     @PatchMapping("/profile")
     public ResponseEntity<?> updateProfile(
-            @AuthenticationPrincipal String userEmail,
+            @AuthenticationPrincipal(expression = "name") String userEmail,
             @RequestBody Map<String, Object> profileData) {
         log.debug("PATCH /profile called for user: {} with data: {}", userEmail, profileData);
         var updated = userService.updateProfile(userEmail, profileData);
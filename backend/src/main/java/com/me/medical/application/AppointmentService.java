@@ -1,11 +1,25 @@
 package com.me.medical.application;
 
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+import com.me.medical.application.dto.AgendaPage;
 import com.me.medical.application.dto.AppointmentDto;
+import com.me.medical.application.dto.CreateAppointmentRequest;
+import com.me.medical.application.dto.SlotHoldDto;
 
 public interface AppointmentService {
     AppointmentDto createAppointment(UUID doctorId, UUID slotId, UUID patientId);
-    List<AppointmentDto> listByPatient(UUID patientId);
+    Optional<AppointmentDto> tryCreateAppointment(UUID doctorId, UUID slotId, UUID patientId);
+    List<AppointmentDto> createAppointments(List<CreateAppointmentRequest> items, UUID patientId);
+    List<AppointmentDto> listByPatient(UUID patientId, int page, int size);
+    AgendaPage listByDoctor(UUID doctorId, OffsetDateTime from, OffsetDateTime to, String cursor, Integer limit);
+    SlotHoldDto holdSlot(UUID doctorId, UUID slotId, UUID patientId);
+    AppointmentDto confirmHold(UUID slotId, UUID patientId);
+    void releaseHold(UUID slotId, UUID patientId);
+    AppointmentDto cancelAppointment(UUID appointmentId, UUID patientId);
+    AppointmentDto rescheduleAppointment(UUID appointmentId, UUID doctorId, UUID slotId, UUID patientId);
+    AppointmentDto bookNextAvailable(UUID doctorId, String specialty, OffsetDateTime from, OffsetDateTime to, UUID patientId);
 }
@@ -0,0 +1,11 @@
+package com.me.medical.application;
+
+/**
+ * Exceção lançada quando o pool de hashing de senhas está saturado e a requisição é
+ * descartada em vez de enfileirada (mapeada para 429 pelos controllers).
+ */
+public class AuthOverloadedException extends RuntimeException {
+    public AuthOverloadedException(String message) {
+        super(message);
+    }
+}
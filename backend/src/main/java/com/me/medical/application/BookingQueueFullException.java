@@ -0,0 +1,10 @@
+package com.me.medical.application;
+
+/**
+ * Exceção lançada quando a fila de reservas do modo assíncrono está cheia.
+ */
+public class BookingQueueFullException extends RuntimeException {
+    public BookingQueueFullException(String message) {
+        super(message);
+    }
+}
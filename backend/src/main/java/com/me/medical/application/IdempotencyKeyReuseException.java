@@ -0,0 +1,11 @@
+package com.me.medical.application;
+
+/**
+ * Exceção lançada quando uma Idempotency-Key já usada é enviada com outra requisição
+ * (médico ou slot diferentes).
+ */
+public class IdempotencyKeyReuseException extends RuntimeException {
+    public IdempotencyKeyReuseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.me.medical.application;
+
+import java.util.UUID;
+
+import com.me.medical.application.dto.IdempotentAppointment;
+
+public interface IdempotentBookingService {
+    IdempotentAppointment createAppointment(UUID doctorId, UUID slotId, UUID patientId, String idempotencyKey);
+}
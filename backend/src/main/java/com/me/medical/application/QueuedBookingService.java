@@ -0,0 +1,13 @@
+package com.me.medical.application;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import com.me.medical.application.dto.BookingTicketDto;
+
+public interface QueuedBookingService {
+    boolean isEnabled();
+    BookingTicketDto submit(UUID doctorId, UUID slotId, UUID patientId);
+    CompletableFuture<BookingTicketDto> await(UUID ticketId, UUID patientId, Duration wait);
+}
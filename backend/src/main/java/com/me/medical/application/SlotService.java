@@ -1,13 +1,16 @@
 package com.me.medical.application;
 
-import java.util.List;
+import java.time.OffsetDateTime;
 import java.util.UUID;
 
+import com.me.medical.application.dto.ScheduleTemplateRequest;
 import com.me.medical.application.dto.SlotDto;
+import com.me.medical.application.dto.SlotPage;
 
 public interface SlotService {
     SlotDto createSlot(UUID doctorId, SlotDto dto);
-    List<SlotDto> listSlots(UUID doctorId);
+    SlotPage listSlots(UUID doctorId, String status, OffsetDateTime from, OffsetDateTime to, String cursor, Integer limit);
     SlotDto updateSlot(UUID doctorId, UUID slotId, SlotDto dto);
     void deleteSlot(UUID doctorId, UUID slotId);
+    int generateSlots(UUID doctorId, ScheduleTemplateRequest template);
 }
@@ -0,0 +1,13 @@
+package com.me.medical.application;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import com.me.medical.application.dto.WaitlistEntryDto;
+
+public interface WaitlistService {
+    WaitlistEntryDto join(UUID doctorId, UUID patientId, OffsetDateTime from, OffsetDateTime to);
+    void leave(UUID entryId, UUID patientId);
+    List<WaitlistEntryDto> listWaiting(UUID patientId);
+}
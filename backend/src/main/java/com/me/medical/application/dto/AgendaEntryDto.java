@@ -0,0 +1,43 @@
+package com.me.medical.application.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Item da agenda do médico: um agendamento ativo com horário e paciente.
+ */
+@Schema(description = "Agendamento na agenda do médico")
+@Getter
+@Setter
+@NoArgsConstructor
+public class AgendaEntryDto {
+
+    @Schema(description = "ID do agendamento", example = "550e8400-e29b-41d4-a716-446655440002")
+    private UUID id;
+
+    @Schema(description = "ID do slot", example = "550e8400-e29b-41d4-a716-446655440001")
+    private UUID slotId;
+
+    @Schema(description = "ID do paciente", example = "550e8400-e29b-41d4-a716-446655440003")
+    private UUID patientId;
+
+    @Schema(description = "Nome do paciente", example = "Maria Souza")
+    private String patientName;
+
+    @Schema(description = "Status do agendamento", example = "confirmed")
+    private String status;
+
+    @Schema(description = "Início da consulta", example = "2025-09-02T10:00:00Z")
+    private OffsetDateTime start;
+
+    @Schema(description = "Fim da consulta", example = "2025-09-02T10:30:00Z")
+    private OffsetDateTime end;
+
+    @Schema(description = "Data de criação do agendamento", example = "2025-09-01T15:30:00Z")
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,22 @@
+package com.me.medical.application.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Página da agenda do médico ordenada por (start, slotId) com cursor opaco para a próxima página.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgendaPage {
+    private List<AgendaEntryDto> items;
+
+    /** Cursor para a próxima página; null quando não há mais resultados. */
+    private String nextCursor;
+}
@@ -0,0 +1,21 @@
+package com.me.medical.application.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Request DTO para reservar vários slots (de um ou mais médicos) de uma vez.
+ */
+@Schema(description = "Slots reservados juntos: todos ou nenhum")
+@Getter
+@Setter
+@NoArgsConstructor
+public class BatchAppointmentRequest {
+
+    @Schema(description = "Pares médico/slot a reservar", required = true)
+    private List<CreateAppointmentRequest> items;
+}
@@ -0,0 +1,46 @@
+package com.me.medical.application.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Ticket de uma reserva enfileirada: status e, quando concluída, o agendamento ou o motivo da falha.
+ */
+@Schema(description = "Reserva aceita na fila; consultar até sair de 'queued'")
+@Getter
+@Setter
+@NoArgsConstructor
+public class BookingTicketDto {
+    public static final String QUEUED = "queued";
+    public static final String CONFIRMED = "confirmed";
+    public static final String FAILED = "failed";
+
+    @Schema(description = "ID do ticket", example = "7c9e6679-7425-40de-944b-e07fc1f90ae7")
+    private UUID id;
+
+    @Schema(description = "ID do médico", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID doctorId;
+
+    @Schema(description = "ID do slot pedido", example = "550e8400-e29b-41d4-a716-446655440001")
+    private UUID slotId;
+
+    @Schema(description = "queued, confirmed ou failed", example = "queued")
+    private String status;
+
+    @Schema(description = "Agendamento criado (status confirmed)")
+    private AppointmentDto appointment;
+
+    @Schema(description = "Motivo da falha (status failed)", example = "slot not available")
+    private String error;
+
+    @Schema(description = "Instante em que o pedido entrou na fila", example = "2025-09-02T15:30:00Z")
+    private OffsetDateTime createdAt;
+
+    @Schema(description = "Instante em que o pedido foi processado", example = "2025-09-02T15:30:01Z")
+    private OffsetDateTime completedAt;
+}
@@ -0,0 +1,8 @@
+package com.me.medical.application.dto;
+
+/**
+ * Resultado de uma criação de agendamento com {@code Idempotency-Key}: status HTTP e corpo da
+ * resposta original, e se esta resposta é uma repetição armazenada.
+ */
+public record IdempotentAppointment(int status, AppointmentDto body, boolean replayed) {
+}
@@ -0,0 +1,31 @@
+package com.me.medical.application.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Request DTO para reservar o primeiro slot disponível de um médico ou especialidade.
+ */
+@Schema(description = "Reserva do próximo slot livre: informe doctorId ou specialty, não ambos")
+@Getter
+@Setter
+@NoArgsConstructor
+public class NextAvailableRequest {
+
+    @Schema(description = "ID do médico", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID doctorId;
+
+    @Schema(description = "Especialidade; qualquer médico dela serve", example = "Cardiologia")
+    private String specialty;
+
+    @Schema(description = "Início da janela (padrão: agora)", example = "2025-09-10T08:00:00Z")
+    private OffsetDateTime from;
+
+    @Schema(description = "Fim (exclusivo) da janela", example = "2025-09-10T12:00:00Z", required = true)
+    private OffsetDateTime to;
+}
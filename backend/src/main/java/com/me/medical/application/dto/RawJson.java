@@ -0,0 +1,45 @@
+package com.me.medical.application.dto;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+/**
+ * Documento JSON mantido como texto, usado nos metadados dos slots.
+ *
+ * Na leitura o conteúdo da coluna {@code jsonb} é escrito na resposta como está, sem
+ * desserializar para um Map e serializar de novo. Na escrita o {@link Deserializer}
+ * valida o JSON uma única vez copiando os tokens do parser, sem montar a árvore.
+ */
+public record RawJson(String json) {
+
+    @JsonValue
+    @JsonRawValue
+    public String json() {
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return json;
+    }
+
+    /**
+     * Lê qualquer valor JSON (objeto, array ou escalar) da requisição como {@link RawJson}.
+     */
+    public static class Deserializer extends JsonDeserializer<RawJson> {
+        @Override
+        public RawJson deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            var out = new StringWriter();
+            try (var generator = p.getCodec().getFactory().createGenerator(out)) {
+                generator.copyCurrentStructure(p);
+            }
+            return new RawJson(out.toString());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.me.medical.application.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Request DTO com um modelo semanal de agenda a ser expandido em slots no servidor.
+ */
+@Schema(description = "Modelo semanal de horários para geração de slots em lote")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ScheduleTemplateRequest {
+
+    @Schema(description = "Dias da semana atendidos", example = "[\"MONDAY\", \"WEDNESDAY\", \"FRIDAY\"]", required = true)
+    private List<DayOfWeek> weekdays;
+
+    @Schema(description = "Primeiro dia (inclusivo) do período", example = "2025-10-01", required = true)
+    private LocalDate fromDate;
+
+    @Schema(description = "Último dia (inclusivo) do período", example = "2025-12-31", required = true)
+    private LocalDate toDate;
+
+    @Schema(description = "Início do expediente (hora local)", example = "08:00", required = true)
+    private LocalTime dayStart;
+
+    @Schema(description = "Fim do expediente (hora local)", example = "17:00", required = true)
+    private LocalTime dayEnd;
+
+    @Schema(description = "Duração de cada slot em minutos", example = "30", required = true)
+    private Integer slotMinutes;
+
+    @Schema(description = "Intervalos sem atendimento dentro do expediente (ex.: almoço)")
+    private List<Break> breaks;
+
+    @Schema(description = "Fuso horário das horas informadas", example = "America/Sao_Paulo", defaultValue = "UTC")
+    private String zone;
+
+    @Schema(description = "Metadados aplicados a todos os slots gerados", example = "{\"room\": \"Sala 203\"}")
+    // JSON da requisição chega como RawJson (validado, sem árvore); chamadores Java ainda podem usar Map
+    @JsonDeserialize(using = RawJson.Deserializer.class)
+    private Object metadata;
+
+    /**
+     * Intervalo [start, end) sem atendimento, em hora local.
+     */
+    @Schema(description = "Intervalo sem atendimento")
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class Break {
+        @Schema(description = "Início do intervalo", example = "12:00", required = true)
+        private LocalTime start;
+
+        @Schema(description = "Fim do intervalo", example = "13:00", required = true)
+        private LocalTime end;
+    }
+}
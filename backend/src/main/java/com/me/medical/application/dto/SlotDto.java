@@ -3,6 +3,8 @@ package com.me.medical.application.dto;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -30,5 +32,7 @@ public class SlotDto {
     private String status;
     
     @Schema(description = "Metadados adicionais do slot", example = "{\"notes\": \"Consulta de rotina\"}")
+    // JSON da requisição chega como RawJson (validado, sem árvore); chamadores Java ainda podem usar Map
+    @JsonDeserialize(using = RawJson.Deserializer.class)
     private Object metadata;
 }
@@ -0,0 +1,52 @@
+package com.me.medical.application.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Mudança na agenda de um médico, publicada após o commit e enviada aos assinantes do
+ * stream SSE de slots do médico.
+ */
+@Schema(description = "Evento incremental de disponibilidade de slot")
+public record SlotEvent(
+    @Schema(description = "Tipo do evento", allowableValues = {"slot-created", "slot-updated", "slot-booked", "slot-released", "slot-deleted"})
+    String type,
+    @Schema(description = "ID do médico")
+    UUID doctorId,
+    @Schema(description = "ID do slot")
+    UUID slotId,
+    @Schema(description = "Início do slot (ausente em slot-deleted)")
+    OffsetDateTime start,
+    @Schema(description = "Fim do slot (ausente em slot-deleted)")
+    OffsetDateTime end,
+    @Schema(description = "Status do slot após a mudança (ausente em slot-deleted)")
+    String status) {
+
+    public static final String CREATED = "slot-created";
+    public static final String UPDATED = "slot-updated";
+    public static final String BOOKED = "slot-booked";
+    public static final String RELEASED = "slot-released";
+    public static final String DELETED = "slot-deleted";
+
+    public static SlotEvent created(UUID doctorId, UUID slotId, OffsetDateTime start, OffsetDateTime end, String status) {
+        return new SlotEvent(CREATED, doctorId, slotId, start, end, status);
+    }
+
+    public static SlotEvent updated(UUID doctorId, UUID slotId, OffsetDateTime start, OffsetDateTime end, String status) {
+        return new SlotEvent(UPDATED, doctorId, slotId, start, end, status);
+    }
+
+    public static SlotEvent booked(UUID doctorId, UUID slotId, OffsetDateTime start, OffsetDateTime end) {
+        return new SlotEvent(BOOKED, doctorId, slotId, start, end, "booked");
+    }
+
+    public static SlotEvent released(UUID doctorId, UUID slotId, OffsetDateTime start, OffsetDateTime end) {
+        return new SlotEvent(RELEASED, doctorId, slotId, start, end, "available");
+    }
+
+    public static SlotEvent deleted(UUID doctorId, UUID slotId) {
+        return new SlotEvent(DELETED, doctorId, slotId, null, null, null);
+    }
+}
@@ -0,0 +1,33 @@
+package com.me.medical.application.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Reserva provisória (hold) de um slot, válida até {@code expiresAt}.
+ */
+@Schema(description = "Reserva provisória de um slot aguardando confirmação do paciente")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotHoldDto {
+
+    @Schema(description = "ID do slot retido", example = "550e8400-e29b-41d4-a716-446655440001")
+    private UUID slotId;
+
+    @Schema(description = "ID do médico", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID doctorId;
+
+    @Schema(description = "ID do paciente que detém o hold", example = "550e8400-e29b-41d4-a716-446655440003")
+    private UUID patientId;
+
+    @Schema(description = "Instante em que o hold expira e o slot volta a ficar livre", example = "2025-09-02T15:35:00Z")
+    private OffsetDateTime expiresAt;
+}
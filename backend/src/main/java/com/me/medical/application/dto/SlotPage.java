@@ -0,0 +1,22 @@
+package com.me.medical.application.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Página de slots ordenada por (start, id) com cursor opaco para a próxima página.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotPage {
+    private List<SlotDto> items;
+
+    /** Cursor para a próxima página; null quando não há mais resultados. */
+    private String nextCursor;
+}
@@ -0,0 +1,43 @@
+package com.me.medical.application.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO de uma entrada da lista de espera.
+ */
+@Schema(description = "Entrada na lista de espera de um médico")
+@Getter
+@Setter
+@NoArgsConstructor
+public class WaitlistEntryDto {
+
+    @Schema(description = "ID da entrada", example = "550e8400-e29b-41d4-a716-446655440004")
+    private UUID id;
+
+    @Schema(description = "ID do médico", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID doctorId;
+
+    @Schema(description = "ID do paciente", example = "550e8400-e29b-41d4-a716-446655440003")
+    private UUID patientId;
+
+    @Schema(description = "Início da janela aceita", example = "2025-09-10T08:00:00Z")
+    private OffsetDateTime from;
+
+    @Schema(description = "Fim (exclusivo) da janela aceita", example = "2025-09-10T12:00:00Z")
+    private OffsetDateTime to;
+
+    @Schema(description = "Status da entrada", example = "waiting", allowableValues = {"waiting", "fulfilled", "cancelled"})
+    private String status;
+
+    @Schema(description = "Agendamento criado quando a entrada foi atendida")
+    private UUID appointmentId;
+
+    @Schema(description = "Data e hora de entrada na lista", example = "2025-09-02T15:30:00Z")
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,28 @@
+package com.me.medical.application.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Request DTO para entrar na lista de espera de um médico.
+ */
+@Schema(description = "Entrada na lista de espera: qualquer slot do médico dentro da janela serve")
+@Getter
+@Setter
+@NoArgsConstructor
+public class WaitlistRequest {
+
+    @Schema(description = "ID do médico", example = "550e8400-e29b-41d4-a716-446655440000", required = true)
+    private UUID doctorId;
+
+    @Schema(description = "Início da janela aceita", example = "2025-09-10T08:00:00Z", required = true)
+    private OffsetDateTime from;
+
+    @Schema(description = "Fim (exclusivo) da janela aceita", example = "2025-09-10T12:00:00Z", required = true)
+    private OffsetDateTime to;
+}
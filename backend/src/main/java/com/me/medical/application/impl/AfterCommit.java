@@ -0,0 +1,29 @@
+package com.me.medical.application.impl;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Agenda ações para depois do commit da transação corrente.
+ *
+ * Estruturas em memória (índices, caches) só devem refletir escritas que de fato
+ * foram confirmadas; um rollback não pode deixar rastros nelas. Fora de uma
+ * transação (ex.: testes unitários) a ação é executada imediatamente.
+ */
+final class AfterCommit {
+    private AfterCommit() {
+    }
+
+    static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
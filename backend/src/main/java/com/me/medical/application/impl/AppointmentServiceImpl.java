@@ -1,18 +1,38 @@
 package com.me.medical.application.impl;
 
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.me.medical.application.AppointmentService;
+import com.me.medical.application.dto.AgendaEntryDto;
+import com.me.medical.application.dto.AgendaPage;
 import com.me.medical.application.dto.AppointmentDto;
+import com.me.medical.application.dto.CreateAppointmentRequest;
+import com.me.medical.application.dto.SlotEvent;
+import com.me.medical.application.dto.SlotHoldDto;
+import com.me.medical.config.BookingProperties;
+import com.me.medical.infra.AgendaView;
+import com.me.medical.infra.AppointmentBatchWriter;
 import com.me.medical.infra.AppointmentRepository;
+import com.me.medical.infra.AppointmentView;
 import com.me.medical.infra.DoctorRepository;
 import com.me.medical.infra.JpaAppointmentEntity;
+import com.me.medical.infra.JpaDoctorEntity;
+import com.me.medical.infra.JpaPatientEntity;
 import com.me.medical.infra.JpaSlotEntity;
 import com.me.medical.infra.PatientRepository;
 import com.me.medical.infra.SlotRepository;
@@ -23,30 +43,380 @@ import jakarta.persistence.LockModeType;
 /**
  * Service responsável por criar e listar agendamentos.
  *
- * A criação usa lock pessimista no slot (SELECT FOR UPDATE) para evitar race conditions
- * quando múltiplos pacientes tentam reservar o mesmo slot.
+ * A criação usa, conforme {@code booking.strategy}, lock pessimista no slot (SELECT FOR UPDATE)
+ * ou um UPDATE condicional atômico para evitar race conditions quando múltiplos pacientes
+ * tentam reservar o mesmo slot. As duas estratégias ficam expostas para benchmarks lado a lado.
+ *
+ * A reserva também pode ser feita em duas fases: {@code holdSlot} retém o slot em memória
+ * ({@link SlotHoldTable}) por {@code booking.hold-ttl} e {@code confirmHold} conclui a
+ * reserva pelo mesmo caminho de {@code createAppointment}.
+ *
+ * {@code bookNextAvailable} reserva o primeiro slot livre de uma janela com
+ * {@code FOR UPDATE SKIP LOCKED}, espalhando reservas concorrentes por slots diferentes.
+ * {@code createAppointments} reserva vários slots juntos, todos ou nenhum, e
+ * {@code rescheduleAppointment} troca o slot de um agendamento sem deixá-lo sem horário.
  */
 @Service
 public class AppointmentServiceImpl implements AppointmentService {
+    static final int MAX_PAGE_SIZE = 500;
+    static final int DEFAULT_AGENDA_PAGE_SIZE = 100;
+    private static final OffsetDateTime FAR_FUTURE = OffsetDateTime.parse("9999-12-31T00:00:00Z");
+    static final int MAX_HELD_SKIPS = 20;
+    static final int MAX_BATCH_SIZE = 20;
+
     private final AppointmentRepository appointmentRepository;
     private final EntityManager entityManager;
     private final SlotRepository slotRepository;
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
+    private final AppointmentBatchWriter appointmentBatchWriter;
+    private final BookingProperties bookingProperties;
+    private final ServiceMetrics metrics;
+    private final SlotHoldTable holdTable;
+    private final ApplicationEventPublisher events;
 
     public AppointmentServiceImpl(AppointmentRepository appointmentRepository,
                                   EntityManager entityManager,
                                   SlotRepository slotRepository,
                                   DoctorRepository doctorRepository,
-                                  PatientRepository patientRepository) {
+                                  PatientRepository patientRepository,
+                                  AppointmentBatchWriter appointmentBatchWriter,
+                                  BookingProperties bookingProperties,
+                                  ServiceMetrics metrics,
+                                  SlotHoldTable holdTable,
+                                  ApplicationEventPublisher events) {
         this.appointmentRepository = appointmentRepository;
         this.entityManager = entityManager;
         this.slotRepository = slotRepository;
         this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
+        this.appointmentBatchWriter = appointmentBatchWriter;
+        this.bookingProperties = bookingProperties;
+        this.metrics = metrics;
+        this.holdTable = holdTable;
+        this.events = events;
+    }
+
+    @Override
+    @Transactional
+    /**
+     * Cria um agendamento (reserva) para o slot informado usando a estratégia configurada.
+     * Após o commit publica {@code slot-booked} para os assinantes da agenda do médico.
+     *
+     * @throws IllegalArgumentException quando recursos não existem ou não pertencem
+     * @throws IllegalStateException quando slot não está disponível ou retido por outro paciente
+     */
+    public AppointmentDto createAppointment(UUID doctorId, UUID slotId, UUID patientId) {
+        return metrics.record("createAppointment", () -> {
+            // rejeita sem tocar na linha do slot enquanto outro paciente confirma um hold
+            if (holdTable.isHeldByOther(slotId, patientId)) throw new IllegalStateException("slot on hold");
+            var created = bookingProperties.getStrategy() == BookingProperties.Strategy.CONDITIONAL_UPDATE
+                ? createWithConditionalUpdate(doctorId, slotId, patientId)
+                : createWithPessimisticLock(doctorId, slotId, patientId);
+            var event = SlotEvent.booked(doctorId, slotId, created.getStart(), created.getEnd());
+            AfterCommit.run(() -> events.publishEvent(event));
+            return created;
+        });
+    }
+
+    @Override
+    @Transactional
+    /**
+     * Tenta reservar o slot dentro de uma transação maior (lote do modo fila), sempre pelo
+     * UPDATE condicional. Slot retido por outro paciente ou já reservado não lança exceção:
+     * devolve vazio, a transação não é marcada para rollback e as demais reservas do lote
+     * seguem. Após o commit publica {@code slot-booked}.
+     *
+     * @return o agendamento, ou vazio quando o slot não está disponível
+     * @throws IllegalArgumentException quando recursos não existem ou não pertencem
+     */
+    public Optional<AppointmentDto> tryCreateAppointment(UUID doctorId, UUID slotId, UUID patientId) {
+        return metrics.record("tryCreateAppointment", () -> {
+            if (holdTable.isHeldByOther(slotId, patientId)) return Optional.<AppointmentDto>empty();
+            var created = claimWithConditionalUpdate(doctorId, slotId, patientId);
+            created.ifPresent(c -> {
+                var event = SlotEvent.booked(doctorId, slotId, c.getStart(), c.getEnd());
+                AfterCommit.run(() -> events.publishEvent(event));
+            });
+            return created;
+        });
     }
 
     @Override
+    @Transactional
+    /**
+     * Reserva vários slots (de um ou mais médicos) para o paciente numa única transação:
+     * todos ou nenhum.
+     *
+     * Os slots são travados numa só consulta {@code FOR UPDATE} ordenada por id, que já traz os
+     * médicos para os DTOs. Lotes concorrentes que compartilham slots adquirem os locks na mesma
+     * ordem canônica e apenas esperam um pelo outro, sem deadlock. Depois de validados, os slots
+     * viram booked num único UPDATE e os agendamentos entram num INSERT em lote: paciente, lock,
+     * UPDATE e INSERT, quatro comandos para o lote todo. Após o commit publica
+     * {@code slot-booked} para cada slot.
+     *
+     * @return os agendamentos, na ordem dos itens pedidos
+     * @throws IllegalArgumentException quando o lote é vazio, grande demais ou repete slots, ou
+     * quando recursos não existem ou não pertencem
+     * @throws IllegalStateException quando algum slot não está disponível ou está retido por
+     * outro paciente
+     */
+    public List<AppointmentDto> createAppointments(List<CreateAppointmentRequest> items, UUID patientId) {
+        return metrics.record("createAppointments", () -> {
+            if (items == null || items.isEmpty()) throw new IllegalArgumentException("no slots requested");
+            if (items.size() > MAX_BATCH_SIZE) throw new IllegalArgumentException("too many slots (max " + MAX_BATCH_SIZE + ")");
+            var slotIds = new HashSet<UUID>();
+            for (var item : items) {
+                if (item.getDoctorId() == null || item.getSlotId() == null) {
+                    throw new IllegalArgumentException("doctorId and slotId required");
+                }
+                if (!slotIds.add(item.getSlotId())) throw new IllegalArgumentException("duplicate slot in batch");
+                if (holdTable.isHeldByOther(item.getSlotId(), patientId)) throw new IllegalStateException("slot on hold");
+            }
+            var patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new IllegalArgumentException("patient not found"));
+
+            var locked = metrics.lockWait("batch", () -> slotRepository.lockAllOrdered(slotIds)).stream()
+                .collect(Collectors.toMap(JpaSlotEntity::getId, Function.identity()));
+            var now = OffsetDateTime.now();
+            var appointments = new ArrayList<JpaAppointmentEntity>(items.size());
+            for (var item : items) {
+                var slot = locked.get(item.getSlotId());
+                if (slot == null) throw new IllegalArgumentException("slot not found");
+                if (!slot.getDoctor().getId().equals(item.getDoctorId())) {
+                    throw new IllegalArgumentException("slot does not belong to doctor");
+                }
+                if (!"available".equals(slot.getStatus())) throw new IllegalStateException("slot not available");
+
+                var appointment = new JpaAppointmentEntity();
+                appointment.setId(UUID.randomUUID());
+                appointment.setSlot(slot);
+                appointment.setDoctor(slot.getDoctor());
+                appointment.setPatient(patient);
+                appointment.setStatus("confirmed");
+                appointment.setCreatedAt(now);
+                appointments.add(appointment);
+            }
+
+            // com os locks retidos nenhum slot muda de status entre a validação e o UPDATE
+            if (slotRepository.markBooked(slotIds) != slotIds.size()) throw new IllegalStateException("slot not available");
+            // o UPDATE em massa não passa pelo contexto: tira só estes slots dele (sem descartar
+            // as entidades de uma transação externa) e acerta o status das cópias em memória
+            for (var slot : locked.values()) {
+                entityManager.detach(slot);
+                slot.setStatus("booked");
+            }
+            appointmentBatchWriter.insert(appointments);
+            var created = appointments.stream().map(this::toDto).collect(Collectors.toList());
+
+            var booked = appointments.stream()
+                .map(a -> SlotEvent.booked(a.getDoctor().getId(), a.getSlot().getId(), a.getSlot().getStartTime(),
+                    a.getSlot().getEndTime()))
+                .toList();
+            AfterCommit.run(() -> booked.forEach(events::publishEvent));
+            return created;
+        });
+    }
+
+    @Override
+    @Transactional
+    /**
+     * Reserva o primeiro slot disponível do médico (ou de qualquer médico da especialidade)
+     * com início em [from, to), para quem não se importa com o horário exato.
+     *
+     * O slot é escolhido e travado numa única consulta {@code FOR UPDATE SKIP LOCKED}: slots
+     * travados por outra reserva em andamento são pulados, então requisições concorrentes
+     * ficam com slots diferentes em vez de fazer fila no mesmo. Slots retidos por outro
+     * paciente ({@link SlotHoldTable}) também são pulados, até {@value #MAX_HELD_SKIPS} vezes.
+     *
+     * @throws IllegalArgumentException quando a janela é inválida, nenhum ou ambos entre médico
+     * e especialidade foram informados, ou o paciente não existe
+     * @throws IllegalStateException quando não há slot disponível na janela
+     */
+    public AppointmentDto bookNextAvailable(UUID doctorId, String specialty, OffsetDateTime from,
+                                            OffsetDateTime to, UUID patientId) {
+        return metrics.record("bookNextAvailable", () -> {
+            if ((doctorId == null) == (specialty == null || specialty.isBlank())) {
+                throw new IllegalArgumentException("exactly one of doctorId or specialty required");
+            }
+            if (to == null) throw new IllegalArgumentException("to required");
+            var now = OffsetDateTime.now();
+            var windowStart = from == null || from.isBefore(now) ? now : from;
+            if (!windowStart.isBefore(to)) throw new IllegalArgumentException("empty window");
+
+            var patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new IllegalArgumentException("patient not found"));
+
+            var after = windowStart;
+            var afterId = SlotCursor.MIN_ID;
+            for (int skipped = 0; skipped <= MAX_HELD_SKIPS; skipped++) {
+                var slot = lockNextAvailable(doctorId, specialty, after, afterId, to);
+                if (slot == null) break;
+                if (holdTable.isHeldByOther(slot.getId(), patientId)) {
+                    // o lock deste slot fica até o fim da transação; a busca continua depois dele
+                    after = slot.getStartTime();
+                    afterId = slot.getId();
+                    continue;
+                }
+                var saved = bookLocked(slot, slot.getDoctor(), patient);
+                var event = SlotEvent.booked(slot.getDoctor().getId(), slot.getId(), slot.getStartTime(), slot.getEndTime());
+                AfterCommit.run(() -> events.publishEvent(event));
+                return toDto(saved);
+            }
+            throw new IllegalStateException("no available slot in window");
+        });
+    }
+
+    private JpaSlotEntity lockNextAvailable(UUID doctorId, String specialty, OffsetDateTime after, UUID afterId,
+                                            OffsetDateTime to) {
+        var first = PageRequest.ofSize(1);
+        var found = metrics.lockWait("skip_locked", () -> doctorId != null
+            ? slotRepository.lockNextAvailable(doctorId, after, afterId, to, first)
+            : slotRepository.lockNextAvailableBySpecialty(specialty, after, afterId, to, first));
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    /**
+     * Retém o slot para o paciente por {@code booking.hold-ttl} sem lock no banco: apenas uma
+     * leitura simples valida o slot e o hold fica na {@link SlotHoldTable}. Repetir o hold
+     * renova o prazo, até {@code booking.hold-max-duration} desde o primeiro hold.
+     *
+     * @throws IllegalArgumentException quando o slot não existe ou não pertence ao médico
+     * @throws IllegalStateException quando o slot não está disponível, já está retido ou o
+     * paciente atingiu {@code booking.max-holds-per-patient} holds ativos
+     */
+    public SlotHoldDto holdSlot(UUID doctorId, UUID slotId, UUID patientId) {
+        return metrics.record("holdSlot", () -> {
+            var slot = slotRepository.findById(slotId)
+                .orElseThrow(() -> new IllegalArgumentException("slot not found"));
+            if (!slot.getDoctor().getId().equals(doctorId)) {
+                throw new IllegalArgumentException("slot does not belong to doctor");
+            }
+            if (!"available".equals(slot.getStatus())) {
+                throw new IllegalStateException("slot not available");
+            }
+
+            var hold = holdTable.acquire(slotId, doctorId, patientId, bookingProperties.getHoldTtl());
+            return new SlotHoldDto(hold.slotId(), hold.doctorId(), hold.patientId(),
+                hold.expiresAt().atOffset(ZoneOffset.UTC));
+        });
+    }
+
+    @Override
+    @Transactional
+    /**
+     * Confirma o hold do paciente criando o agendamento com a estratégia configurada.
+     * O hold é liberado após o commit; se a reserva falhar ele continua válido até expirar.
+     *
+     * @throws IllegalStateException quando o paciente não tem hold válido do slot ou o slot
+     * não está mais disponível
+     */
+    public AppointmentDto confirmHold(UUID slotId, UUID patientId) {
+        var hold = holdTable.find(slotId)
+            .filter(h -> h.patientId().equals(patientId))
+            .orElseThrow(() -> new IllegalStateException("no active hold for slot"));
+        var created = createAppointment(hold.doctorId(), slotId, patientId);
+        AfterCommit.run(() -> holdTable.release(hold));
+        return created;
+    }
+
+    @Override
+    @Transactional
+    /**
+     * Cancela o agendamento do paciente e devolve o slot para 'available' na mesma transação.
+     *
+     * Trava primeiro o agendamento e depois o slot (SELECT FOR UPDATE): cancelamentos
+     * concorrentes do mesmo agendamento são serializados e o segundo falha. Após o commit
+     * publica {@code slot-released}, que oferece o slot à lista de espera do médico.
+     *
+     * @throws IllegalArgumentException quando o agendamento não existe
+     * @throws SecurityException quando o agendamento é de outro paciente
+     * @throws IllegalStateException quando o agendamento já foi cancelado
+     */
+    public AppointmentDto cancelAppointment(UUID appointmentId, UUID patientId) {
+        return metrics.record("cancelAppointment", () -> {
+            var appointment = entityManager.find(JpaAppointmentEntity.class, appointmentId, LockModeType.PESSIMISTIC_WRITE);
+            if (appointment == null) throw new IllegalArgumentException("appointment not found");
+            if (!appointment.getPatient().getId().equals(patientId)) throw new SecurityException("not the owner");
+            if ("cancelled".equals(appointment.getStatus())) throw new IllegalStateException("appointment already cancelled");
+
+            var slot = entityManager.find(JpaSlotEntity.class, appointment.getSlot().getId(), LockModeType.PESSIMISTIC_WRITE);
+            appointment.setStatus("cancelled");
+            slot.setStatus("available");
+            slotRepository.save(slot);
+            var saved = appointmentRepository.save(appointment);
+
+            var event = SlotEvent.released(slot.getDoctor().getId(), slot.getId(), slot.getStartTime(), slot.getEndTime());
+            AfterCommit.run(() -> events.publishEvent(event));
+            return toDto(saved);
+        });
+    }
+
+    @Override
+    @Transactional
+    /**
+     * Move o agendamento do paciente para outro slot numa única transação: o slot antigo volta
+     * para 'available' e o novo fica 'booked', ou nada muda.
+     *
+     * Trava o agendamento e depois os dois slots numa só consulta ordenada por id, a mesma
+     * ordem de {@code cancelAppointment} e {@code createAppointments}, então remarcações,
+     * cancelamentos e lotes concorrentes não formam ciclo de locks. Após o commit publica
+     * {@code slot-released} para o slot antigo e {@code slot-booked} para o novo.
+     *
+     * @throws IllegalArgumentException quando o agendamento ou o slot não existem, o slot não
+     * pertence ao médico ou já é o slot do agendamento
+     * @throws SecurityException quando o agendamento é de outro paciente
+     * @throws IllegalStateException quando o agendamento foi cancelado ou o novo slot não está
+     * disponível
+     */
+    public AppointmentDto rescheduleAppointment(UUID appointmentId, UUID doctorId, UUID slotId, UUID patientId) {
+        return metrics.record("rescheduleAppointment", () -> {
+            var appointment = entityManager.find(JpaAppointmentEntity.class, appointmentId, LockModeType.PESSIMISTIC_WRITE);
+            if (appointment == null) throw new IllegalArgumentException("appointment not found");
+            if (!appointment.getPatient().getId().equals(patientId)) throw new SecurityException("not the owner");
+            if ("cancelled".equals(appointment.getStatus())) throw new IllegalStateException("appointment already cancelled");
+            var currentId = appointment.getSlot().getId();
+            if (currentId.equals(slotId)) throw new IllegalArgumentException("appointment already in this slot");
+            if (holdTable.isHeldByOther(slotId, patientId)) throw new IllegalStateException("slot on hold");
+
+            var locked = metrics.lockWait("reschedule", () -> slotRepository.lockAllOrdered(Set.of(currentId, slotId)))
+                .stream().collect(Collectors.toMap(JpaSlotEntity::getId, Function.identity()));
+            var target = locked.get(slotId);
+            if (target == null) throw new IllegalArgumentException("slot not found");
+            if (!target.getDoctor().getId().equals(doctorId)) throw new IllegalArgumentException("slot does not belong to doctor");
+            if (!"available".equals(target.getStatus())) throw new IllegalStateException("slot not available");
+            var current = locked.get(currentId);
+
+            current.setStatus("available");
+            target.setStatus("booked");
+            slotRepository.saveAll(List.of(current, target));
+            appointment.setSlot(target);
+            appointment.setDoctor(target.getDoctor());
+            var saved = appointmentRepository.save(appointment);
+
+            var released = SlotEvent.released(current.getDoctor().getId(), current.getId(), current.getStartTime(),
+                current.getEndTime());
+            var booked = SlotEvent.booked(doctorId, target.getId(), target.getStartTime(), target.getEndTime());
+            AfterCommit.run(() -> {
+                events.publishEvent(released);
+                events.publishEvent(booked);
+            });
+            return toDto(saved);
+        });
+    }
+
+    @Override
+    /**
+     * Desiste do hold do paciente, liberando o slot imediatamente. Sem efeito se não houver hold.
+     */
+    public void releaseHold(UUID slotId, UUID patientId) {
+        holdTable.find(slotId)
+            .filter(h -> h.patientId().equals(patientId))
+            .ifPresent(holdTable::release);
+    }
+
     @Transactional
     /**
      * Cria um agendamento (reserva) para o slot informado.
@@ -66,9 +436,10 @@ public class AppointmentServiceImpl implements AppointmentService {
      * @throws IllegalArgumentException quando recursos não existem ou não pertencem
      * @throws IllegalStateException quando slot não está disponível
      */
-    public AppointmentDto createAppointment(UUID doctorId, UUID slotId, UUID patientId) {
+    public AppointmentDto createWithPessimisticLock(UUID doctorId, UUID slotId, UUID patientId) {
         // busca slot com lock pessimista para prevenir reservas concorrentes
-        var slot = entityManager.find(JpaSlotEntity.class, slotId, LockModeType.PESSIMISTIC_WRITE);
+        var slot = metrics.lockWait("pessimistic",
+            () -> entityManager.find(JpaSlotEntity.class, slotId, LockModeType.PESSIMISTIC_WRITE));
         if (slot == null) throw new IllegalArgumentException("slot not found");
 
         if (!slot.getDoctor().getId().equals(doctorId)) {
@@ -84,6 +455,13 @@ public class AppointmentServiceImpl implements AppointmentService {
         var patient = patientRepository.findById(patientId)
             .orElseThrow(() -> new IllegalArgumentException("patient not found"));
 
+        return toDto(bookLocked(slot, doctor, patient));
+    }
+
+    /**
+     * Reserva um slot já travado pela transação corrente: marca como booked e grava o appointment.
+     */
+    private JpaAppointmentEntity bookLocked(JpaSlotEntity slot, JpaDoctorEntity doctor, JpaPatientEntity patient) {
         var appointment = new JpaAppointmentEntity();
         appointment.setId(UUID.randomUUID());
         appointment.setSlot(slot);
@@ -96,18 +474,153 @@ public class AppointmentServiceImpl implements AppointmentService {
         slot.setStatus("booked");
         slotRepository.save(slot);
 
-        var saved = appointmentRepository.save(appointment);
-        return toDto(saved);
+        // persist, não save: com id atribuído o save faria merge e um SELECT do appointment inexistente
+        entityManager.persist(appointment);
+        return appointment;
+    }
+
+    @Transactional
+    /**
+     * Cria um agendamento reivindicando o slot com um único UPDATE condicional
+     * ({@code SET status='booked' WHERE id=? AND doctor_id=? AND status='available'}).
+     *
+     * O número de linhas afetadas decide o vencedor: concorrentes nunca leem o slot com lock
+     * e, após o commit do vencedor, o UPDATE deles afeta 0 linhas e falha imediatamente.
+     * O paciente é validado antes do UPDATE para que o lock de linha fique retido apenas
+     * durante o INSERT do appointment.
+     *
+     * @throws IllegalArgumentException quando recursos não existem ou não pertencem
+     * @throws IllegalStateException quando slot não está disponível
+     */
+    public AppointmentDto createWithConditionalUpdate(UUID doctorId, UUID slotId, UUID patientId) {
+        return claimWithConditionalUpdate(doctorId, slotId, patientId)
+            .orElseThrow(() -> new IllegalStateException("slot not available"));
+    }
+
+    /**
+     * UPDATE condicional e INSERT do appointment; vazio quando o slot existe e é do médico,
+     * mas não está disponível.
+     */
+    private Optional<AppointmentDto> claimWithConditionalUpdate(UUID doctorId, UUID slotId, UUID patientId) {
+        var patient = patientRepository.findById(patientId)
+            .orElseThrow(() -> new IllegalArgumentException("patient not found"));
+
+        if (metrics.lockWait("conditional_update", () -> slotRepository.claimIfAvailable(slotId, doctorId)) == 0) {
+            // perdedor: diagnostica o motivo com leitura simples (sem lock) para manter os mesmos erros
+            var slot = slotRepository.findById(slotId)
+                .orElseThrow(() -> new IllegalArgumentException("slot not found"));
+            if (!slot.getDoctor().getId().equals(doctorId)) {
+                throw new IllegalArgumentException("slot does not belong to doctor");
+            }
+            return Optional.empty();
+        }
+
+        // o UPDATE só afeta linha se o slot pertence ao médico, então o médico existe;
+        // vem no mesmo SELECT do slot porque o DTO devolve nome e especialidade
+        var slot = slotRepository.findWithDoctorById(slotId)
+            .orElseThrow(() -> new IllegalStateException("claimed slot vanished"));
+
+        var appointment = new JpaAppointmentEntity();
+        appointment.setId(UUID.randomUUID());
+        appointment.setSlot(slot);
+        appointment.setDoctor(slot.getDoctor());
+        appointment.setPatient(patient);
+        appointment.setStatus("confirmed");
+        appointment.setCreatedAt(OffsetDateTime.now());
+
+        entityManager.persist(appointment);
+        return Optional.of(toDto(appointment));
     }
 
     @Override
-    public List<AppointmentDto> listByPatient(UUID patientId) {
-        return appointmentRepository.findByPatientId(patientId).stream()
+    @Transactional(readOnly = true)
+    /**
+     * Lista uma página dos agendamentos do paciente, ordenados pelo início do slot.
+     *
+     * Usa uma projeção com exatamente as colunas do {@link AppointmentDto}: um único SELECT
+     * com joins em slot e médico, sem carregar entidades nem suas associações.
+     *
+     * @param page página (base 0)
+     * @param size tamanho da página, limitado a {@value #MAX_PAGE_SIZE}
+     */
+    public List<AppointmentDto> listByPatient(UUID patientId, int page, int size) {
+        var pageable = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        return appointmentRepository.findViewsByPatientId(patientId, pageable).stream()
             .map(this::toDto)
             .collect(Collectors.toList());
     }
 
-    private AppointmentDto toDto(JpaAppointmentEntity e) {
+    @Override
+    @Transactional(readOnly = true)
+    /**
+     * Lista uma página da agenda do médico (agendamentos ativos) com início em [from, to),
+     * ordenada por (start, slotId).
+     *
+     * Uma única query por página devolve uma projeção plana com o nome do paciente, sem N+1.
+     * A paginação é keyset, então um dia cheio ou um histórico longo custam o mesmo por página.
+     *
+     * @param from início da janela; padrão é o início do dia atual (UTC), ignorado quando há cursor
+     * @param to fim exclusivo da janela; padrão sem limite
+     * @param cursor valor de {@link AgendaPage#getNextCursor()} da página anterior
+     * @param limit tamanho da página (padrão {@value #DEFAULT_AGENDA_PAGE_SIZE}, máximo {@value #MAX_PAGE_SIZE})
+     * @throws IllegalArgumentException cursor inválido ou janela vazia
+     */
+    public AgendaPage listByDoctor(UUID doctorId, OffsetDateTime from, OffsetDateTime to, String cursor, Integer limit) {
+        return metrics.record("listByDoctor", () -> {
+            int size = limit == null ? DEFAULT_AGENDA_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            var position = cursor != null
+                ? SlotCursor.decode(cursor)
+                : new SlotCursor(from != null ? from : OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS),
+                    SlotCursor.MIN_ID);
+            var end = to != null ? to : FAR_FUTURE;
+            if (!position.start().isBefore(end)) {
+                if (cursor == null && from != null) throw new IllegalArgumentException("from must be before to");
+                return new AgendaPage(List.of(), null);
+            }
+
+            // busca uma linha a mais para saber se existe próxima página
+            var rows = appointmentRepository.findAgendaPage(doctorId, position.start(), position.id(), end,
+                PageRequest.ofSize(size + 1));
+            var items = rows.stream().limit(size).map(this::toDto).collect(Collectors.toList());
+            String next = null;
+            if (rows.size() > size) {
+                var last = rows.get(size - 1);
+                next = new SlotCursor(last.start(), last.slotId()).encode();
+            }
+            return new AgendaPage(items, next);
+        });
+    }
+
+    private AgendaEntryDto toDto(AgendaView v) {
+        var d = new AgendaEntryDto();
+        d.setId(v.id());
+        d.setSlotId(v.slotId());
+        d.setPatientId(v.patientId());
+        d.setPatientName(v.patientName());
+        d.setStatus(v.status());
+        d.setStart(v.start());
+        d.setEnd(v.end());
+        d.setCreatedAt(v.createdAt());
+        return d;
+    }
+
+    // package-private para os benchmarks JMH (src/jmh)
+    AppointmentDto toDto(AppointmentView v) {
+        var d = new AppointmentDto();
+        d.setId(v.id());
+        d.setSlotId(v.slotId());
+        d.setDoctorId(v.doctorId());
+        d.setPatientId(v.patientId());
+        d.setStatus(v.status());
+        d.setCreatedAt(v.createdAt());
+        d.setDoctorName(v.doctorName());
+        d.setDoctorSpecialty(v.doctorSpecialty());
+        d.setStart(v.start());
+        d.setEnd(v.end());
+        return d;
+    }
+
+    AppointmentDto toDto(JpaAppointmentEntity e) {
         var d = new AppointmentDto();
         d.setId(e.getId());
         d.setSlotId(e.getSlot() != null ? e.getSlot().getId() : null);
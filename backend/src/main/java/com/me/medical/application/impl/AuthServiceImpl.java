@@ -48,6 +48,7 @@ public class AuthServiceImpl implements AuthService {
      * { token: string, user: { id, role, name, email } }
      *
      * @throws RuntimeException em credenciais inválidas
+     * @throws com.me.medical.application.AuthOverloadedException se o pool de hashing estiver saturado
      */
     public Map<String, Object> login(String email, String password) {
         Optional<JpaUserEntity> userOpt = userRepository.findByEmail(email);
@@ -57,29 +58,38 @@ public class AuthServiceImpl implements AuthService {
             throw new RuntimeException("Credenciais inválidas");
         }
 
+        // custo do BCrypt mudou desde que o hash foi gerado: refaz com a senha já validada
+        if (passwordEncoder.upgradeEncoding(user.getPasswordHash())) {
+            user.setPasswordHash(passwordEncoder.encode(password));
+            userRepository.save(user);
+        }
+
         // Normaliza a role para o formato esperado pelo Spring Security (ex:
         // ROLE_PATIENT)
         String roleRaw = user.getRole() != null ? user.getRole().getName() : "PATIENT";
         String role = roleRaw.startsWith("ROLE_") ? roleRaw : ("ROLE_" + roleRaw);
-        // Usar id do usuário (UUID) como 'sub' no JWT para que o principal
-        // disponível no SecurityContext seja o ID (compatível com controllers que
-        // fazem UUID.fromString(auth.getPrincipal())).
-        String token = tokenProvider.createToken(user.getId().toString(), role);
-
-        // Buscar o nome do usuário baseado na role
+        // Buscar o nome e o id do perfil do usuário baseado na role
         String name = user.getEmail(); // fallback para email se não encontrar nome
+        UUID profileId = null;
         if ("ROLE_DOCTOR".equals(role)) {
             var doctors = doctorRepository.findByUserId(user.getId());
             if (!doctors.isEmpty()) {
                 name = doctors.get(0).getName();
+                profileId = doctors.get(0).getId();
             }
         } else if ("ROLE_PATIENT".equals(role)) {
             var patients = patientRepository.findByUserId(user.getId());
             if (!patients.isEmpty()) {
                 name = patients.get(0).getName();
+                profileId = patients.get(0).getId();
             }
         }
 
+        // Usar id do usuário (UUID) como 'sub' no JWT; o id do perfil vai em um claim
+        // próprio para que os controllers não precisem consultar o banco a cada requisição.
+        String token = tokenProvider.createToken(user.getId().toString(), role,
+                profileId != null ? profileId.toString() : null);
+
         // Montar resposta com token e dados do usuário
         Map<String, Object> response = new HashMap<>();
         response.put("token", token);
@@ -127,6 +137,7 @@ public class AuthServiceImpl implements AuthService {
         user = userRepository.save(user);
 
         // Criar perfil específico baseado na role
+        UUID profileId = null;
         if ("ROLE_DOCTOR".equals(normalizedRole)) {
             JpaDoctorEntity doctor = new JpaDoctorEntity();
             doctor.setId(UUID.randomUUID());
@@ -135,6 +146,7 @@ public class AuthServiceImpl implements AuthService {
             doctor.setSpecialty(specialty != null ? specialty : "");
             doctor.setCreatedAt(OffsetDateTime.now());
             doctorRepository.save(doctor);
+            profileId = doctor.getId();
         } else if ("ROLE_PATIENT".equals(normalizedRole)) {
             JpaPatientEntity patient = new JpaPatientEntity();
             patient.setId(UUID.randomUUID());
@@ -142,12 +154,14 @@ public class AuthServiceImpl implements AuthService {
             patient.setName(name);
             patient.setCreatedAt(OffsetDateTime.now());
             patientRepository.save(patient);
+            profileId = patient.getId();
         }
 
         // Gerar token e retornar dados (login automático após registro)
-        // Usar id do usuário (UUID) como 'sub' no JWT para consistência com os
-        // controllers que esperam o ID no Authentication.getPrincipal().
-        String token = tokenProvider.createToken(user.getId().toString(), normalizedRole);
+        // Usar id do usuário (UUID) como 'sub' no JWT e o id do perfil recém-criado no claim de perfil,
+        // como no login.
+        String token = tokenProvider.createToken(user.getId().toString(), normalizedRole,
+                profileId != null ? profileId.toString() : null);
 
         Map<String, Object> response = new HashMap<>();
         response.put("token", token);
@@ -0,0 +1,168 @@
+package com.me.medical.application.impl;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.me.medical.application.AppointmentService;
+import com.me.medical.application.IdempotencyKeyReuseException;
+import com.me.medical.application.IdempotentBookingService;
+import com.me.medical.application.dto.AppointmentDto;
+import com.me.medical.application.dto.IdempotentAppointment;
+import com.me.medical.config.BookingProperties;
+import com.me.medical.infra.IdempotencyKeyRepository;
+import com.me.medical.infra.JpaIdempotencyKeyEntity;
+
+/**
+ * Criação de agendamentos com {@code Idempotency-Key}.
+ *
+ * A resposta de sucesso é gravada na tabela {@code idempotency_keys} na mesma transação do
+ * agendamento e mantida num cache LRU limitado até expirar ({@code booking.idempotency-ttl}).
+ * Repetições da mesma chave são respondidas pelo cache ou por uma leitura da tabela, sem
+ * chegar ao slot. Uma repetição concorrente com a primeira tentativa disputa o lock do slot,
+ * perde após o commit da primeira e então encontra a resposta gravada.
+ */
+@Service
+public class IdempotentBookingServiceImpl implements IdempotentBookingService {
+    private static final long PURGE_INTERVAL_MS = 60_000;
+
+    private final AppointmentService appointmentService;
+    private final IdempotencyKeyRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingProperties bookingProperties;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Stored> cache;
+    private final AtomicLong lastPurge = new AtomicLong();
+
+    public IdempotentBookingServiceImpl(AppointmentService appointmentService,
+                                        IdempotencyKeyRepository repository,
+                                        PlatformTransactionManager transactionManager,
+                                        BookingProperties bookingProperties,
+                                        ObjectMapper objectMapper) {
+        this.appointmentService = appointmentService;
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bookingProperties = bookingProperties;
+        this.objectMapper = objectMapper;
+        int maxSize = bookingProperties.getIdempotencyCacheSize();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Stored> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    /**
+     * Cria o agendamento ou devolve a resposta já gravada para a chave do paciente.
+     *
+     * @throws IdempotencyKeyReuseException se a chave já foi usada com outro médico/slot
+     * @throws IllegalArgumentException quando recursos não existem ou não pertencem
+     * @throws IllegalStateException quando slot não está disponível
+     */
+    public IdempotentAppointment createAppointment(UUID doctorId, UUID slotId, UUID patientId, String idempotencyKey) {
+        var fingerprint = doctorId + ":" + slotId;
+        var stored = find(patientId, idempotencyKey);
+        if (stored != null) return replay(stored, fingerprint);
+
+        purgeExpiredIfDue();
+        try {
+            var created = transactionTemplate.execute(tx -> {
+                var now = OffsetDateTime.now();
+                repository.deleteIfExpired(patientId, idempotencyKey, now);
+                var dto = appointmentService.createAppointment(doctorId, slotId, patientId);
+                repository.insert(patientId, idempotencyKey, fingerprint, 201, toJson(dto), now,
+                    now.plus(bookingProperties.getIdempotencyTtl()));
+                return new Stored(fingerprint, 201, dto, now.plus(bookingProperties.getIdempotencyTtl()));
+            });
+            cachePut(patientId, idempotencyKey, created);
+            return new IdempotentAppointment(created.status(), created.body(), false);
+        } catch (IllegalStateException | DataIntegrityViolationException e) {
+            // tentativa concorrente com a mesma chave venceu: a resposta dela já está gravada
+            stored = find(patientId, idempotencyKey);
+            if (stored != null) return replay(stored, fingerprint);
+            throw e;
+        }
+    }
+
+    private IdempotentAppointment replay(Stored stored, String fingerprint) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReuseException("idempotency key already used for a different request");
+        }
+        return new IdempotentAppointment(stored.status(), stored.body(), true);
+    }
+
+    /**
+     * Resposta válida da chave: primeiro o cache, depois a tabela (que realimenta o cache).
+     */
+    private Stored find(UUID patientId, String idempotencyKey) {
+        var cacheKey = cacheKey(patientId, idempotencyKey);
+        synchronized (cache) {
+            var cached = cache.get(cacheKey);
+            if (cached != null) {
+                if (cached.expiresAt().isAfter(OffsetDateTime.now())) return cached;
+                cache.remove(cacheKey);
+            }
+        }
+
+        var row = repository.findById(new JpaIdempotencyKeyEntity.Key(patientId, idempotencyKey)).orElse(null);
+        if (row == null || !row.getExpiresAt().isAfter(OffsetDateTime.now())) return null;
+        var stored = new Stored(row.getRequestFingerprint(), row.getStatusCode(), fromJson(row.getResponseBody()),
+            row.getExpiresAt());
+        cachePut(patientId, idempotencyKey, stored);
+        return stored;
+    }
+
+    private void cachePut(UUID patientId, String idempotencyKey, Stored stored) {
+        if (bookingProperties.getIdempotencyCacheSize() <= 0) return;
+        synchronized (cache) {
+            cache.put(cacheKey(patientId, idempotencyKey), stored);
+        }
+    }
+
+    /**
+     * Remove chaves expiradas da tabela no máximo uma vez por minuto, no caminho de escrita.
+     */
+    private void purgeExpiredIfDue() {
+        long now = System.currentTimeMillis();
+        long last = lastPurge.get();
+        if (now - last < PURGE_INTERVAL_MS || !lastPurge.compareAndSet(last, now)) return;
+        transactionTemplate.executeWithoutResult(tx -> repository.deleteExpired(OffsetDateTime.now()));
+    }
+
+    private static String cacheKey(UUID patientId, String idempotencyKey) {
+        return patientId + ":" + idempotencyKey;
+    }
+
+    private String toJson(AppointmentDto dto) {
+        try {
+            return objectMapper.writeValueAsString(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not serialize appointment", e);
+        }
+    }
+
+    private AppointmentDto fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, AppointmentDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not read stored appointment", e);
+        }
+    }
+
+    /**
+     * Resposta gravada para uma chave, com a identificação da requisição original.
+     */
+    private record Stored(String fingerprint, int status, AppointmentDto body, OffsetDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,294 @@
+package com.me.medical.application.impl;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.me.medical.application.AppointmentService;
+import com.me.medical.application.BookingQueueFullException;
+import com.me.medical.application.QueuedBookingService;
+import com.me.medical.application.dto.AppointmentDto;
+import com.me.medical.application.dto.BookingTicketDto;
+import com.me.medical.config.BookingProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Reservas enfileiradas para picos de demanda (campanhas), ligadas por {@code booking.queue-enabled}.
+ *
+ * O pedido entra numa fila limitada em memória e o cliente recebe um ticket na hora, sem
+ * esperar pelo lock do slot. Cada partição tem uma única thread escritora e todos os pedidos
+ * de um médico caem na mesma partição, então pedidos enfileirados nunca disputam o mesmo slot
+ * entre si. O escritor grava até {@code booking.queue-batch-size} reservas por transação, cada
+ * uma por UPDATE condicional: quem perdeu o slot (reservado fora da fila ou retido) falha sozinho
+ * sem desfazer o lote. Qualquer outra falha desfaz o lote, que é refeito uma reserva por
+ * transação para isolar quem falhou.
+ *
+ * Os tickets vivem só em memória (instância única) e somem {@code booking.ticket-ttl} após
+ * concluídos: deixam de ser consultáveis na hora e uma tarefa periódica os remove do mapa,
+ * mesmo sem novos pedidos. Pedidos ainda na fila são perdidos num restart.
+ */
+@Service
+public class QueuedBookingServiceImpl implements QueuedBookingService, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(QueuedBookingServiceImpl.class);
+    private static final long PURGE_INTERVAL_MS = 60_000;
+
+    private final AppointmentService appointmentService;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingProperties bookingProperties;
+    private final Map<UUID, Ticket> tickets = new ConcurrentHashMap<>();
+    private final List<BlockingQueue<Ticket>> partitions = new ArrayList<>();
+    private final ExecutorService writers;
+    private final ScheduledExecutorService purger;
+
+    public QueuedBookingServiceImpl(AppointmentService appointmentService,
+                                    PlatformTransactionManager transactionManager,
+                                    BookingProperties bookingProperties,
+                                    MeterRegistry registry) {
+        this.appointmentService = appointmentService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bookingProperties = bookingProperties;
+        if (!bookingProperties.isQueueEnabled()) {
+            this.writers = null;
+            this.purger = null;
+            return;
+        }
+
+        int count = Math.max(1, bookingProperties.getQueuePartitions());
+        int capacity = Math.max(1, bookingProperties.getQueueCapacity() / count);
+        var sequence = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(count, r -> {
+            var t = new Thread(r, "booking-writer-" + sequence.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < count; i++) {
+            var queue = new ArrayBlockingQueue<Ticket>(capacity);
+            partitions.add(queue);
+            writers.execute(() -> drain(queue));
+        }
+        this.purger = Executors.newSingleThreadScheduledExecutor(r -> {
+            var t = new Thread(r, "booking-ticket-purge");
+            t.setDaemon(true);
+            return t;
+        });
+        purger.scheduleWithFixedDelay(() -> purgeExpired(OffsetDateTime.now()),
+            PURGE_INTERVAL_MS, PURGE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        registry.gauge("booking.queue.depth", Tags.empty(), partitions,
+            p -> p.stream().mapToInt(BlockingQueue::size).sum());
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return writers != null;
+    }
+
+    @Override
+    /**
+     * Enfileira a reserva na partição do médico e devolve o ticket com status {@code queued}.
+     *
+     * @throws IllegalStateException se o modo fila estiver desligado
+     * @throws IllegalArgumentException se médico ou slot não forem informados
+     * @throws BookingQueueFullException se a partição do médico estiver cheia
+     */
+    public BookingTicketDto submit(UUID doctorId, UUID slotId, UUID patientId) {
+        if (!isEnabled()) throw new IllegalStateException("queued booking disabled");
+        if (doctorId == null || slotId == null) throw new IllegalArgumentException("doctorId and slotId required");
+
+        var ticket = new Ticket(UUID.randomUUID(), doctorId, slotId, patientId, OffsetDateTime.now());
+        // lido antes do offer: o escritor pode concluir o ticket antes deste método retornar
+        var queued = ticket.state;
+        tickets.put(ticket.id, ticket);
+        if (!partitions.get(Math.floorMod(doctorId.hashCode(), partitions.size())).offer(ticket)) {
+            tickets.remove(ticket.id);
+            throw new BookingQueueFullException("booking queue full");
+        }
+        return queued;
+    }
+
+    @Override
+    /**
+     * Estado do ticket. Com {@code wait} positivo, o future só completa quando o ticket é
+     * processado ou o prazo acaba (devolvendo o ticket ainda {@code queued}), sem bloquear
+     * a thread da requisição.
+     *
+     * @throws IllegalArgumentException se o ticket não existir (ou já expirou)
+     * @throws SecurityException se o ticket for de outro paciente
+     */
+    public CompletableFuture<BookingTicketDto> await(UUID ticketId, UUID patientId, Duration wait) {
+        var ticket = tickets.get(ticketId);
+        if (ticket == null || expired(ticket, OffsetDateTime.now())) throw new IllegalArgumentException("ticket not found");
+        if (!ticket.patientId.equals(patientId)) throw new SecurityException("not the owner");
+        if (wait == null || wait.isZero() || wait.isNegative() || ticket.done.isDone()) {
+            return CompletableFuture.completedFuture(ticket.state);
+        }
+        return ticket.done.copy().completeOnTimeout(ticket.state, wait.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Laço do escritor de uma partição: espera o primeiro pedido e leva junto os que já
+     * estiverem na fila, até o tamanho do lote.
+     */
+    private void drain(BlockingQueue<Ticket> queue) {
+        int batchSize = Math.max(1, bookingProperties.getQueueBatchSize());
+        var batch = new ArrayList<Ticket>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            try {
+                process(batch);
+            } catch (RuntimeException e) {
+                // nunca derruba o escritor: o que sobrou do lote falha e o laço continua
+                log.error("Booking writer failed on a batch of {}: {}", batch.size(), e.getMessage(), e);
+                batch.forEach(t -> t.fail("internal error"));
+            }
+            batch.clear();
+        }
+    }
+
+    // package-private para os testes
+    void process(List<Ticket> batch) {
+        // pedidos repetidos do mesmo slot no lote: só o primeiro tem chance, sem ir ao banco
+        var bySlot = new LinkedHashMap<UUID, Ticket>();
+        for (var ticket : batch) {
+            if (bySlot.putIfAbsent(ticket.slotId, ticket) != null) ticket.fail("slot not available");
+        }
+        var pending = new ArrayList<>(bySlot.values());
+
+        try {
+            // slot indisponível volta vazio em vez de exceção, então não marca o lote para rollback
+            var created = transactionTemplate.execute(tx -> pending.stream()
+                .map(t -> appointmentService.tryCreateAppointment(t.doctorId, t.slotId, t.patientId))
+                .toList());
+            for (int i = 0; i < pending.size(); i++) {
+                var ticket = pending.get(i);
+                created.get(i).ifPresentOrElse(ticket::confirm, () -> ticket.fail("slot not available"));
+            }
+        } catch (RuntimeException e) {
+            if (pending.size() == 1) {
+                pending.get(0).fail(e);
+                return;
+            }
+            // outra falha desfaz o lote inteiro: refaz um por transação para isolar quem falhou
+            pending.forEach(this::bookAlone);
+        }
+    }
+
+    private void bookAlone(Ticket ticket) {
+        try {
+            ticket.confirm(transactionTemplate.execute(tx ->
+                appointmentService.createAppointment(ticket.doctorId, ticket.slotId, ticket.patientId)));
+        } catch (RuntimeException e) {
+            ticket.fail(e);
+        }
+    }
+
+    /**
+     * Remove os tickets concluídos há mais de {@code booking.ticket-ttl}. Roda a cada minuto
+     * na thread de limpeza, independente do movimento da fila.
+     */
+    void purgeExpired(OffsetDateTime now) {
+        try {
+            tickets.values().removeIf(t -> expired(t, now));
+        } catch (RuntimeException e) {
+            // uma falha não pode cancelar as próximas execuções agendadas
+            log.warn("Booking ticket purge failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean expired(Ticket ticket, OffsetDateTime now) {
+        var completedAt = ticket.state.getCompletedAt();
+        return completedAt != null && completedAt.isBefore(now.minus(bookingProperties.getTicketTtl()));
+    }
+
+    @Override
+    public void destroy() {
+        if (purger != null) purger.shutdownNow();
+        if (writers != null) writers.shutdownNow();
+    }
+
+    /**
+     * Pedido enfileirado. {@code state} é trocado (nunca alterado) ao concluir e {@code done}
+     * completa com o estado final.
+     */
+    static final class Ticket {
+        final UUID id;
+        final UUID doctorId;
+        final UUID slotId;
+        final UUID patientId;
+        final CompletableFuture<BookingTicketDto> done = new CompletableFuture<>();
+        volatile BookingTicketDto state;
+
+        Ticket(UUID id, UUID doctorId, UUID slotId, UUID patientId, OffsetDateTime createdAt) {
+            this.id = id;
+            this.doctorId = doctorId;
+            this.slotId = slotId;
+            this.patientId = patientId;
+            this.state = snapshot(BookingTicketDto.QUEUED, null, null, createdAt, null);
+        }
+
+        void confirm(AppointmentDto appointment) {
+            complete(snapshot(BookingTicketDto.CONFIRMED, appointment, null, state.getCreatedAt(), OffsetDateTime.now()));
+        }
+
+        void fail(RuntimeException e) {
+            // IllegalArgument/IllegalState carregam o mesmo motivo que a reserva síncrona devolveria
+            if (e instanceof IllegalArgumentException || e instanceof IllegalStateException) {
+                fail(e.getMessage());
+            } else {
+                log.warn("Queued booking {} failed: {}", id, e.getMessage(), e);
+                fail("internal error");
+            }
+        }
+
+        void fail(String error) {
+            complete(snapshot(BookingTicketDto.FAILED, null, error, state.getCreatedAt(), OffsetDateTime.now()));
+        }
+
+        private void complete(BookingTicketDto finalState) {
+            if (done.isDone()) return;
+            state = finalState;
+            done.complete(finalState);
+        }
+
+        private BookingTicketDto snapshot(String status, AppointmentDto appointment, String error,
+                                          OffsetDateTime createdAt, OffsetDateTime completedAt) {
+            var d = new BookingTicketDto();
+            d.setId(id);
+            d.setDoctorId(doctorId);
+            d.setSlotId(slotId);
+            d.setStatus(status);
+            d.setAppointment(appointment);
+            d.setError(error);
+            d.setCreatedAt(createdAt);
+            d.setCompletedAt(completedAt);
+            return d;
+        }
+    }
+}
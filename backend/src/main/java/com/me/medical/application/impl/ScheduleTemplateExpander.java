@@ -0,0 +1,100 @@
+package com.me.medical.application.impl;
+
+import java.time.DateTimeException;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import com.me.medical.application.dto.ScheduleTemplateRequest;
+import com.me.medical.infra.SlotInterval;
+
+/**
+ * Expande um modelo semanal de agenda nos intervalos concretos dos slots.
+ *
+ * Os intervalos retornados ficam ordenados por início e nunca se sobrepõem entre si,
+ * o que permite checar conflitos com os slots existentes em uma única varredura.
+ */
+final class ScheduleTemplateExpander {
+    /** Limite de slots por requisição para evitar transações gigantes. */
+    static final int MAX_SLOTS = 10_000;
+
+    private ScheduleTemplateExpander() {
+    }
+
+    /**
+     * @throws IllegalArgumentException se o modelo for inválido ou gerar slots demais
+     */
+    static List<SlotInterval> expand(ScheduleTemplateRequest t) {
+        validate(t);
+        ZoneId zone = parseZone(t.getZone());
+        var weekdays = EnumSet.copyOf(t.getWeekdays());
+        var breaks = t.getBreaks() == null ? List.<ScheduleTemplateRequest.Break>of() : t.getBreaks();
+
+        var result = new ArrayList<SlotInterval>();
+        for (var date = t.getFromDate(); !date.isAfter(t.getToDate()); date = date.plusDays(1)) {
+            if (!weekdays.contains(date.getDayOfWeek())) continue;
+
+            LocalTime start = t.getDayStart();
+            while (true) {
+                LocalTime end = start.plusMinutes(t.getSlotMinutes());
+                // plusMinutes dá a volta à meia-noite; end <= start significa que passou do dia
+                if (!end.isAfter(start) || end.isAfter(t.getDayEnd())) break;
+
+                var overlappingBreak = firstBreakOverlapping(breaks, start, end);
+                if (overlappingBreak != null) {
+                    start = overlappingBreak.getEnd();
+                    continue;
+                }
+
+                if (result.size() == MAX_SLOTS) {
+                    throw new IllegalArgumentException("template generates more than " + MAX_SLOTS + " slots");
+                }
+                result.add(new SlotInterval(UUID.randomUUID(),
+                    date.atTime(start).atZone(zone).toOffsetDateTime(),
+                    date.atTime(end).atZone(zone).toOffsetDateTime()));
+                start = end;
+            }
+        }
+        return result;
+    }
+
+    private static ScheduleTemplateRequest.Break firstBreakOverlapping(List<ScheduleTemplateRequest.Break> breaks,
+                                                                       LocalTime start, LocalTime end) {
+        ScheduleTemplateRequest.Break first = null;
+        for (var b : breaks) {
+            if (b.getStart().isBefore(end) && b.getEnd().isAfter(start)
+                    && (first == null || b.getStart().isBefore(first.getStart()))) {
+                first = b;
+            }
+        }
+        return first;
+    }
+
+    private static void validate(ScheduleTemplateRequest t) {
+        if (t.getWeekdays() == null || t.getWeekdays().isEmpty()) throw new IllegalArgumentException("weekdays required");
+        if (t.getFromDate() == null || t.getToDate() == null) throw new IllegalArgumentException("fromDate and toDate required");
+        if (t.getToDate().isBefore(t.getFromDate())) throw new IllegalArgumentException("fromDate must not be after toDate");
+        if (t.getDayStart() == null || t.getDayEnd() == null) throw new IllegalArgumentException("dayStart and dayEnd required");
+        if (!t.getDayStart().isBefore(t.getDayEnd())) throw new IllegalArgumentException("dayStart must be before dayEnd");
+        if (t.getSlotMinutes() == null || t.getSlotMinutes() <= 0) throw new IllegalArgumentException("slotMinutes must be positive");
+        if (t.getBreaks() != null) {
+            for (var b : t.getBreaks()) {
+                if (b == null || b.getStart() == null || b.getEnd() == null || !b.getStart().isBefore(b.getEnd())) {
+                    throw new IllegalArgumentException("invalid break interval");
+                }
+            }
+        }
+    }
+
+    private static ZoneId parseZone(String zone) {
+        if (zone == null || zone.isBlank()) return ZoneId.of("UTC");
+        try {
+            return ZoneId.of(zone);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("invalid zone: " + zone, e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.me.medical.application.impl;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.me.medical.application.SlotOverlapException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Instrumentação Micrometer das operações de reserva e de gestão de slots.
+ *
+ * <ul>
+ * <li>{@code medical.operation.duration{operation}}: tempo total com histograma de
+ * percentis. Dentro de transação o timer só para no fim dela, incluindo flush e commit.</li>
+ * <li>{@code medical.operation.outcome{operation,outcome}}: success, not_available
+ * ({@link IllegalStateException}), not_found ({@link IllegalArgumentException}), overlap
+ * ({@link SlotOverlapException}), forbidden ({@link SecurityException}), rolled_back ou error.</li>
+ * <li>{@code booking.lock.wait{strategy}}: tempo do comando que disputa o lock da linha do
+ * slot (SELECT FOR UPDATE ou UPDATE condicional), separado do tempo total da reserva.</li>
+ * </ul>
+ */
+@Component
+public class ServiceMetrics {
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(10);
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> durations = new ConcurrentHashMap<>();
+    private final Map<String, Timer> lockWaits = new ConcurrentHashMap<>();
+
+    public ServiceMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Executa {@code body} medindo a duração e contabilizando o resultado da operação.
+     */
+    public <T> T record(String operation, Supplier<T> body) {
+        var sample = Timer.start(registry);
+        T result;
+        try {
+            result = body.get();
+        } catch (RuntimeException e) {
+            // a transação será revertida; não há commit a esperar
+            finish(operation, sample, outcomeOf(e));
+            throw e;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    finish(operation, sample, status == STATUS_COMMITTED ? "success" : "rolled_back");
+                }
+            });
+        } else {
+            finish(operation, sample, "success");
+        }
+        return result;
+    }
+
+    /**
+     * Mede o comando que adquire o lock da linha do slot.
+     */
+    public <T> T lockWait(String strategy, Supplier<T> lockingCall) {
+        var timer = lockWaits.computeIfAbsent(strategy, s -> Timer.builder("booking.lock.wait")
+            .description("Tempo do comando que disputa o lock do slot")
+            .tag("strategy", s)
+            .publishPercentileHistogram()
+            .maximumExpectedValue(MAX_EXPECTED)
+            .register(registry));
+        return timer.record(lockingCall);
+    }
+
+    private void finish(String operation, Timer.Sample sample, String outcome) {
+        sample.stop(durations.computeIfAbsent(operation, op -> Timer.builder("medical.operation.duration")
+            .description("Duração das operações de reserva e de slots")
+            .tag("operation", op)
+            .publishPercentileHistogram()
+            .maximumExpectedValue(MAX_EXPECTED)
+            .register(registry)));
+        // Counter.builder(...).register devolve o contador já existente para as mesmas tags
+        Counter.builder("medical.operation.outcome")
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .register(registry)
+            .increment();
+    }
+
+    private static String outcomeOf(RuntimeException e) {
+        if (e instanceof SlotOverlapException) return "overlap";
+        if (e instanceof IllegalStateException) return "not_available";
+        if (e instanceof IllegalArgumentException) return "not_found";
+        if (e instanceof SecurityException) return "forbidden";
+        return "error";
+    }
+}
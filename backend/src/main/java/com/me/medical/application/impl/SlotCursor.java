@@ -0,0 +1,35 @@
+package com.me.medical.application.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Cursor de paginação keyset sobre (start_time, id), serializado como base64url opaco.
+ */
+record SlotCursor(OffsetDateTime start, UUID id) {
+    /** Id mínimo usado na primeira página (nenhum UUID v4 é igual a ele). */
+    static final UUID MIN_ID = new UUID(0L, 0L);
+
+    String encode() {
+        var raw = start.toInstant() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException se o cursor estiver malformado
+     */
+    static SlotCursor decode(String cursor) {
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            var start = Instant.parse(raw.substring(0, sep)).atOffset(ZoneOffset.UTC);
+            return new SlotCursor(start, UUID.fromString(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid cursor", e);
+        }
+    }
+}
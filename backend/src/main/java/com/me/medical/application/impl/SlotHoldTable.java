@@ -0,0 +1,173 @@
+package com.me.medical.application.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.me.medical.config.BookingProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Tabela em memória de holds (reservas provisórias) de slots, indexada pelo id do slot.
+ *
+ * Um hold não toca o banco: é uma entrada no mapa com prazo. A expiração é agendada num
+ * {@link TimerWheel}, que remove a entrada sem nenhuma varredura; leituras também ignoram
+ * entradas vencidas, então a precisão do timer não afeta a regra.
+ *
+ * Os holds são locais à instância. O lock/UPDATE condicional no banco continua sendo o
+ * árbitro final da reserva; o hold apenas evita que outros pacientes disputem o slot
+ * enquanto o detentor confirma. Para que um paciente não retenha a agenda inteira, cada um
+ * tem no máximo {@code booking.max-holds-per-patient} holds ativos e renovações não passam
+ * de {@code booking.hold-max-duration} contados do primeiro hold.
+ */
+@Component
+public class SlotHoldTable implements DisposableBean {
+    private static final Duration TICK = Duration.ofSeconds(1);
+    private static final int WHEEL_SIZE = 512;
+
+    private final ConcurrentHashMap<UUID, Hold> holds = new ConcurrentHashMap<>();
+    // slots retidos por paciente; cada conjunto só é alterado dentro do compute do mapa
+    private final ConcurrentHashMap<UUID, Set<UUID>> byPatient = new ConcurrentHashMap<>();
+    private final TimerWheel wheel;
+    private final Clock clock;
+    private final int maxPerPatient;
+    private final Duration maxHoldTime;
+
+    @Autowired
+    public SlotHoldTable(MeterRegistry registry, BookingProperties properties) {
+        this(new TimerWheel("slot-hold-expiry", TICK, WHEEL_SIZE), Clock.systemUTC(),
+            properties.getMaxHoldsPerPatient(), properties.getHoldMaxDuration());
+        registry.gaugeMapSize("booking.holds.active", Tags.empty(), holds);
+    }
+
+    SlotHoldTable(TimerWheel wheel, Clock clock, int maxPerPatient, Duration maxHoldTime) {
+        this.wheel = wheel;
+        this.clock = clock;
+        this.maxPerPatient = Math.max(1, maxPerPatient);
+        this.maxHoldTime = maxHoldTime;
+    }
+
+    /**
+     * Hold de um slot: paciente, médico dono do slot, instante do primeiro hold (base do
+     * limite de renovação) e instante de expiração.
+     */
+    public record Hold(UUID slotId, UUID doctorId, UUID patientId, Instant heldSince, Instant expiresAt) {
+        boolean isLive(Instant now) {
+            return now.isBefore(expiresAt);
+        }
+    }
+
+    /**
+     * Retém o slot para o paciente por {@code ttl}. Se o paciente já detém o hold, o prazo
+     * é renovado, mas nunca além do limite contado do primeiro hold.
+     *
+     * @throws IllegalStateException se outro paciente detém um hold válido do slot ou se o
+     * paciente já atingiu o limite de holds ativos
+     */
+    public Hold acquire(UUID slotId, UUID doctorId, UUID patientId, Duration ttl) {
+        var now = clock.instant();
+        var result = new Hold[1];
+        var rejection = new String[1];
+        holds.compute(slotId, (id, existing) -> {
+            if (existing != null && existing.isLive(now)) {
+                if (!existing.patientId().equals(patientId)) {
+                    rejection[0] = "slot on hold";
+                    return existing;
+                }
+                result[0] = new Hold(slotId, doctorId, patientId, existing.heldSince(),
+                    deadline(now, ttl, existing.heldSince()));
+                return result[0];
+            }
+            // hold novo: ocupa uma das vagas do paciente
+            if (!reserve(patientId, slotId, now)) {
+                rejection[0] = "too many holds";
+                return existing;
+            }
+            if (existing != null && !existing.patientId().equals(patientId)) unlink(existing.patientId(), slotId);
+            result[0] = new Hold(slotId, doctorId, patientId, now, deadline(now, ttl, now));
+            return result[0];
+        });
+        if (rejection[0] != null) throw new IllegalStateException(rejection[0]);
+
+        var hold = result[0];
+        // remove só este hold: uma renovação posterior cria outro registro e sobrevive a este timer
+        wheel.schedule(() -> remove(hold), Duration.between(now, hold.expiresAt()));
+        return hold;
+    }
+
+    private Instant deadline(Instant now, Duration ttl, Instant heldSince) {
+        var requested = now.plus(ttl);
+        var cap = heldSince.plus(maxHoldTime);
+        return requested.isBefore(cap) ? requested : cap;
+    }
+
+    /**
+     * Reserva uma vaga do paciente para o slot. Slots cujo hold já venceu ou mudou de dono
+     * deixam de contar; slots sem hold ainda são aquisições em andamento e contam.
+     */
+    private boolean reserve(UUID patientId, UUID slotId, Instant now) {
+        var reserved = new boolean[1];
+        byPatient.compute(patientId, (id, slots) -> {
+            var current = slots != null ? slots : new HashSet<UUID>();
+            current.removeIf(s -> {
+                var h = holds.get(s);
+                return h != null && (!h.isLive(now) || !h.patientId().equals(patientId));
+            });
+            if (current.size() < maxPerPatient) {
+                current.add(slotId);
+                reserved[0] = true;
+            }
+            return current.isEmpty() ? null : current;
+        });
+        return reserved[0];
+    }
+
+    private void unlink(UUID patientId, UUID slotId) {
+        byPatient.computeIfPresent(patientId, (id, slots) -> {
+            slots.remove(slotId);
+            return slots.isEmpty() ? null : slots;
+        });
+    }
+
+    private void remove(Hold hold) {
+        if (holds.remove(hold.slotId(), hold)) unlink(hold.patientId(), hold.slotId());
+    }
+
+    /**
+     * Hold válido do slot, se houver.
+     */
+    public Optional<Hold> find(UUID slotId) {
+        var hold = holds.get(slotId);
+        return hold != null && hold.isLive(clock.instant()) ? Optional.of(hold) : Optional.empty();
+    }
+
+    /**
+     * Indica se outro paciente detém um hold válido do slot.
+     */
+    public boolean isHeldByOther(UUID slotId, UUID patientId) {
+        return find(slotId).filter(h -> !h.patientId().equals(patientId)).isPresent();
+    }
+
+    /**
+     * Libera o hold informado; não afeta um hold mais novo do mesmo slot.
+     */
+    public void release(Hold hold) {
+        remove(hold);
+    }
+
+    @Override
+    public void destroy() {
+        wheel.close();
+    }
+}
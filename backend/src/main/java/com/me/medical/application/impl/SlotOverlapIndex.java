@@ -0,0 +1,207 @@
+package com.me.medical.application.impl;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.me.medical.infra.SlotInterval;
+import com.me.medical.infra.SlotRepository;
+
+/**
+ * Índice em memória, por médico, dos intervalos [start, end) dos slots.
+ *
+ * Os slots de um médico não se sobrepõem, então ordenados por início também ficam
+ * ordenados por fim: basta olhar o slot com maior início anterior a {@code end}
+ * para decidir se há interseção (O(log n) em uma {@link TreeMap}).
+ *
+ * O índice é aquecido sob demanda a partir do banco e atualizado somente após o commit
+ * das escritas. Guarda só os slots que terminam depois do aquecimento (slots passados não
+ * ficam em memória) e descarta os que vão terminando. Enquanto um médico estiver "frio", ou
+ * para intervalos que começam antes do trecho coberto, {@link #overlaps} retorna vazio e o
+ * chamador deve usar a checagem SQL. Assume uma única instância da aplicação escrevendo
+ * na tabela `slots`; escritas externas exigem {@link #invalidate}.
+ *
+ * A publicação da carga e as escritas passam pelo mesmo {@code compute} do mapa por médico:
+ * uma escrita confirmada durante a carga ou vem antes da publicação (e a carga é descartada)
+ * ou depois (e é aplicada sobre ela).
+ */
+@Component
+public class SlotOverlapIndex {
+    private static final Logger log = LoggerFactory.getLogger(SlotOverlapIndex.class);
+
+    private final SlotRepository slotRepository;
+    private final Map<UUID, DoctorIntervals> byDoctor = new ConcurrentHashMap<>();
+    // contador de modificações por médico; descarta aquecimentos concorrentes com escritas
+    private final Map<UUID, AtomicLong> modifications = new ConcurrentHashMap<>();
+
+    public SlotOverlapIndex(SlotRepository slotRepository) {
+        this.slotRepository = slotRepository;
+    }
+
+    /**
+     * Verifica se [start, end) intersecta algum slot do médico, ignorando {@code excludeId}.
+     *
+     * @return vazio quando o índice do médico ainda não foi aquecido ou não cobre {@code start}
+     */
+    public Optional<Boolean> overlaps(UUID doctorId, OffsetDateTime start, OffsetDateTime end, UUID excludeId) {
+        var intervals = byDoctor.get(doctorId);
+        if (intervals == null) return Optional.empty();
+        return intervals.overlaps(start.toInstant(), end.toInstant(), excludeId);
+    }
+
+    /**
+     * Carrega do banco os intervalos do médico que ainda não terminaram, caso não estejam em
+     * memória. Se outra escrita for confirmada durante a carga, o resultado é descartado e o
+     * médico continua frio até a próxima tentativa.
+     */
+    public void warm(UUID doctorId) {
+        if (byDoctor.containsKey(doctorId)) return;
+        long before = modificationCount(doctorId).get();
+
+        var from = OffsetDateTime.now();
+        List<SlotInterval> rows = slotRepository.findIntervalsEndingAfter(doctorId, from);
+        var intervals = new DoctorIntervals(from.toInstant());
+        for (var row : rows) {
+            if (!intervals.put(row.id(), row.startTime().toInstant(), row.endTime().toInstant())) {
+                // dados legados com sobreposição: o atalho O(log n) não é confiável, mantém SQL
+                log.debug("Slot overlap index not warmed for doctor {}: existing slots overlap", doctorId);
+                return;
+            }
+        }
+
+        // o contador só muda dentro do compute de byDoctor, então a comparação aqui é atômica
+        // em relação às escritas
+        byDoctor.compute(doctorId, (id, current) ->
+            current != null || modificationCount(id).get() != before ? current : intervals);
+    }
+
+    /**
+     * Registra a criação/atualização de um slot após o commit da transação corrente.
+     */
+    public void onSaved(UUID doctorId, UUID slotId, OffsetDateTime start, OffsetDateTime end) {
+        // false: uma escrita concorrente furou a checagem; volta a usar SQL para este médico
+        AfterCommit.run(() -> modify(doctorId, intervals -> intervals.put(slotId, start.toInstant(), end.toInstant())));
+    }
+
+    /**
+     * Registra a criação de vários slots do médico (ex.: geração em lote) após o commit.
+     */
+    public void onSavedAll(UUID doctorId, List<SlotInterval> slots) {
+        AfterCommit.run(() -> modify(doctorId, intervals -> slots.stream()
+            .allMatch(slot -> intervals.put(slot.id(), slot.startTime().toInstant(), slot.endTime().toInstant()))));
+    }
+
+    /**
+     * Registra a remoção de um slot após o commit da transação corrente.
+     */
+    public void onDeleted(UUID doctorId, UUID slotId) {
+        AfterCommit.run(() -> modify(doctorId, intervals -> {
+            intervals.remove(slotId);
+            return true;
+        }));
+    }
+
+    /**
+     * Descarta os intervalos em memória do médico; a próxima checagem usa SQL.
+     */
+    public void invalidate(UUID doctorId) {
+        modify(doctorId, intervals -> false);
+    }
+
+    /**
+     * Conta a modificação e aplica {@code change} aos intervalos do médico, se aquecidos, no
+     * mesmo passo atômico em que {@link #warm} publica a carga. {@code change} retornando
+     * false descarta os intervalos do médico.
+     */
+    private void modify(UUID doctorId, Predicate<DoctorIntervals> change) {
+        byDoctor.compute(doctorId, (id, intervals) -> {
+            modificationCount(id).incrementAndGet();
+            return intervals == null || change.test(intervals) ? intervals : null;
+        });
+    }
+
+    private AtomicLong modificationCount(UUID doctorId) {
+        return modifications.computeIfAbsent(doctorId, id -> new AtomicLong());
+    }
+
+    /**
+     * Intervalos disjuntos de um médico que terminam depois de {@code from}, indexados por
+     * início e por id do slot.
+     */
+    private static final class DoctorIntervals {
+        private final TreeMap<Instant, Interval> byStart = new TreeMap<>();
+        private final Map<UUID, Interval> byId = new HashMap<>();
+        // todo slot que termina depois deste instante está no índice
+        private Instant from;
+
+        DoctorIntervals(Instant from) {
+            this.from = from;
+        }
+
+        /**
+         * @return vazio se {@code start} é anterior ao trecho coberto pelo índice
+         */
+        synchronized Optional<Boolean> overlaps(Instant start, Instant end, UUID excludeId) {
+            if (start.isBefore(from)) return Optional.empty();
+            return Optional.of(intersects(start, end, excludeId));
+        }
+
+        private boolean intersects(Instant start, Instant end, UUID excludeId) {
+            var candidate = byStart.lowerEntry(end);
+            if (candidate != null && candidate.getValue().id().equals(excludeId)) {
+                candidate = byStart.lowerEntry(candidate.getKey());
+            }
+            return candidate != null && candidate.getValue().end().isAfter(start);
+        }
+
+        /**
+         * Insere ou substitui o intervalo do slot.
+         *
+         * @return false se o novo intervalo intersectar outro já indexado
+         */
+        synchronized boolean put(UUID id, Instant start, Instant end) {
+            remove(id);
+            pruneEnded(Instant.now());
+            if (intersects(start, end, null)) return false;
+            var interval = new Interval(id, start, end);
+            byStart.put(start, interval);
+            byId.put(id, interval);
+            return true;
+        }
+
+        synchronized void remove(UUID id) {
+            var previous = byId.remove(id);
+            if (previous != null) byStart.remove(previous.start());
+        }
+
+        /**
+         * Remove os slots já encerrados; como são disjuntos, os primeiros por início são os
+         * primeiros a terminar. O trecho coberto passa a começar em {@code now}.
+         */
+        private void pruneEnded(Instant now) {
+            var first = byStart.firstEntry();
+            if (first == null || first.getValue().end().isAfter(now)) return;
+            while (first != null && !first.getValue().end().isAfter(now)) {
+                byStart.pollFirstEntry();
+                byId.remove(first.getValue().id());
+                first = byStart.firstEntry();
+            }
+            if (now.isAfter(from)) from = now;
+        }
+    }
+
+    private record Interval(UUID id, Instant start, Instant end) {
+    }
+}
@@ -1,10 +1,15 @@
 package com.me.medical.application.impl;
 
+import java.sql.SQLException;
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,24 +17,53 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.me.medical.application.SlotOverlapException;
 import com.me.medical.application.SlotService;
+import com.me.medical.application.dto.RawJson;
+import com.me.medical.application.dto.ScheduleTemplateRequest;
+import com.me.medical.application.dto.SlotEvent;
 import com.me.medical.application.dto.SlotDto;
+import com.me.medical.application.dto.SlotPage;
+import com.me.medical.config.SlotProperties;
 import com.me.medical.infra.DoctorRepository;
 import com.me.medical.infra.JpaSlotEntity;
+import com.me.medical.infra.SlotBatchWriter;
+import com.me.medical.infra.SlotInterval;
 import com.me.medical.infra.SlotRepository;
 
 /**
  * Implementação do SlotService contendo validações de negócio.
  * Regras importantes: start < end; apenas o médico dono pode gerenciar; sem sobreposição.
+ * Toda mudança confirmada é publicada como {@link SlotEvent} após o commit.
  */
 @Service
 public class SlotServiceImpl implements SlotService {
+    static final int DEFAULT_PAGE_SIZE = 200;
+    static final int MAX_PAGE_SIZE = 1000;
+    // limite superior "aberto" da janela, representável tanto no Postgres quanto no H2
+    private static final OffsetDateTime FAR_FUTURE = OffsetDateTime.parse("9999-12-31T00:00:00Z");
+    // SQLSTATE exclusion_violation do Postgres
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    private static final List<String> OVERLAP_CONSTRAINTS = List.of("slots_no_overlap", "idx_slots_doctor_start");
+
     private final SlotRepository slotRepository;
     private final DoctorRepository doctorRepository;
+    private final SlotOverlapIndex overlapIndex;
+    private final SlotBatchWriter slotBatchWriter;
+    private final ServiceMetrics metrics;
+    private final SlotProperties slotProperties;
+    private final ApplicationEventPublisher events;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public SlotServiceImpl(SlotRepository slotRepository, DoctorRepository doctorRepository) {
+    public SlotServiceImpl(SlotRepository slotRepository, DoctorRepository doctorRepository,
+                           SlotOverlapIndex overlapIndex, SlotBatchWriter slotBatchWriter,
+                           ServiceMetrics metrics, SlotProperties slotProperties,
+                           ApplicationEventPublisher events) {
         this.slotRepository = slotRepository;
         this.doctorRepository = doctorRepository;
+        this.overlapIndex = overlapIndex;
+        this.slotBatchWriter = slotBatchWriter;
+        this.metrics = metrics;
+        this.slotProperties = slotProperties;
+        this.events = events;
     }
 
     @Override
@@ -49,38 +83,76 @@ public class SlotServiceImpl implements SlotService {
      * @throws SlotOverlapException se existir sobreposição
      */
     public SlotDto createSlot(UUID doctorId, SlotDto dto) {
-        validateTimes(dto.getStart(), dto.getEnd());
+        return metrics.record("createSlot", () -> {
+            validateTimes(dto.getStart(), dto.getEnd());
 
-        var doctor = doctorRepository.findById(doctorId)
-            .orElseThrow(() -> new IllegalArgumentException("doctor not found"));
-        // validação de overlap: usar query que delega a lógica ao banco
-        var overlapping = slotRepository.findOverlappingSlots(doctorId, dto.getStart(), dto.getEnd());
-        if (!overlapping.isEmpty()) {
-            throw new SlotOverlapException("slot overlaps with existing slot");
-        }
+            var doctor = doctorRepository.findById(doctorId)
+                .orElseThrow(() -> new IllegalArgumentException("doctor not found"));
+            requireNoOverlap(doctorId, dto.getStart(), dto.getEnd(), null);
 
-        var entity = new JpaSlotEntity();
-        entity.setId(UUID.randomUUID());
-        entity.setDoctor(doctor);
-        entity.setStartTime(dto.getStart());
-        entity.setEndTime(dto.getEnd());
-        entity.setStatus(dto.getStatus() == null ? "available" : dto.getStatus());
-        try {
-            entity.setMetadata(dto.getMetadata() == null ? null : objectMapper.writeValueAsString(dto.getMetadata()));
-        } catch (JsonProcessingException e) {
-            throw new IllegalArgumentException("invalid metadata JSON", e);
-        }
-        entity.setCreatedAt(OffsetDateTime.now());
+            var entity = new JpaSlotEntity();
+            entity.setId(UUID.randomUUID());
+            entity.setDoctor(doctor);
+            entity.setStartTime(dto.getStart());
+            entity.setEndTime(dto.getEnd());
+            entity.setStatus(dto.getStatus() == null ? "available" : dto.getStatus());
+            entity.setMetadata(metadataJson(dto.getMetadata()));
+            entity.setCreatedAt(OffsetDateTime.now());
 
-        var saved = slotRepository.save(entity);
-        return toDto(saved);
+            var saved = saveChecked(entity);
+            if (!slotProperties.isOverlapConstraint()) {
+                overlapIndex.onSaved(doctorId, saved.getId(), saved.getStartTime(), saved.getEndTime());
+            }
+            var event = SlotEvent.created(doctorId, saved.getId(), saved.getStartTime(), saved.getEndTime(), saved.getStatus());
+            AfterCommit.run(() -> events.publishEvent(event));
+            return toDto(saved);
+        });
     }
 
     @Override
-    public List<SlotDto> listSlots(UUID doctorId) {
-        return slotRepository.findByDoctorId(doctorId).stream()
-            .map(this::toDto)
-            .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    /**
+     * Lista uma página de slots do médico dentro da janela [from, to), ordenada por (start, id).
+     *
+     * O filtro de status e o limite são aplicados no banco; a paginação é keyset, então o
+     * custo de cada página não cresce com o histórico de slots do médico.
+     *
+     * @param status filtra por status quando não nulo (ex.: 'available')
+     * @param from início da janela; padrão é o minuto atual (ignorado quando há cursor). O
+     *             truncamento torna a página padrão estável dentro do minuto, o que permite ETag
+     * @param to fim exclusivo da janela; padrão sem limite
+     * @param cursor valor de {@link SlotPage#getNextCursor()} da página anterior
+     * @param limit tamanho da página (padrão {@value #DEFAULT_PAGE_SIZE}, máximo {@value #MAX_PAGE_SIZE})
+     * @throws IllegalArgumentException cursor inválido ou janela vazia
+     */
+    public SlotPage listSlots(UUID doctorId, String status, OffsetDateTime from, OffsetDateTime to,
+                              String cursor, Integer limit) {
+        return metrics.record("listSlots", () -> {
+            int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            var position = cursor != null
+                ? SlotCursor.decode(cursor)
+                : new SlotCursor(from != null ? from : OffsetDateTime.now().truncatedTo(ChronoUnit.MINUTES), SlotCursor.MIN_ID);
+            var end = to != null ? to : FAR_FUTURE;
+            if (!position.start().isBefore(end)) {
+                if (cursor == null && from != null) throw new IllegalArgumentException("from must be before to");
+                return new SlotPage(List.of(), null);
+            }
+
+            // busca uma linha a mais para saber se existe próxima página
+            var page = PageRequest.ofSize(size + 1);
+            var rows = status == null
+                ? slotRepository.findPage(doctorId, position.start(), position.id(), end, page)
+                : slotRepository.findPageByStatus(doctorId, status, position.start(), position.id(), end, page);
+
+            boolean hasMore = rows.size() > size;
+            var items = rows.stream().limit(size).map(this::toDto).collect(Collectors.toList());
+            String next = null;
+            if (hasMore) {
+                var last = rows.get(size - 1);
+                next = new SlotCursor(last.getStartTime(), last.getId()).encode();
+            }
+            return new SlotPage(items, next);
+        });
     }
 
     @Override
@@ -94,34 +166,32 @@ public class SlotServiceImpl implements SlotService {
      * @throws SlotOverlapException se houver sobreposição
      */
     public SlotDto updateSlot(UUID doctorId, UUID slotId, SlotDto dto) {
-        validateTimes(dto.getStart(), dto.getEnd());
+        return metrics.record("updateSlot", () -> {
+            validateTimes(dto.getStart(), dto.getEnd());
 
-        var entity = slotRepository.findById(slotId)
-            .orElseThrow(() -> new IllegalArgumentException("slot not found"));
+            var entity = slotRepository.findById(slotId)
+                .orElseThrow(() -> new IllegalArgumentException("slot not found"));
 
-        if (!entity.getDoctor().getId().equals(doctorId)) {
-            throw new SecurityException("not the owner");
-        }
+            if (!entity.getDoctor().getId().equals(doctorId)) {
+                throw new SecurityException("not the owner");
+            }
 
-        // checa overlap com exclusão própria usando query parametrizada
-        var overlapping = slotRepository.findOverlappingSlotsExcludingId(doctorId, dto.getStart(), dto.getEnd(), slotId);
-        if (!overlapping.isEmpty()) {
-            throw new SlotOverlapException("slot overlaps with existing slot");
-        }
+            // checa overlap com exclusão própria
+            requireNoOverlap(doctorId, dto.getStart(), dto.getEnd(), slotId);
 
-        entity.setStartTime(dto.getStart());
-        entity.setEndTime(dto.getEnd());
-        if (dto.getStatus() != null) entity.setStatus(dto.getStatus());
-        if (dto.getMetadata() != null) {
-            try {
-                entity.setMetadata(objectMapper.writeValueAsString(dto.getMetadata()));
-            } catch (JsonProcessingException e) {
-                throw new IllegalArgumentException("invalid metadata JSON", e);
-            }
-        }
+            entity.setStartTime(dto.getStart());
+            entity.setEndTime(dto.getEnd());
+            if (dto.getStatus() != null) entity.setStatus(dto.getStatus());
+            if (dto.getMetadata() != null) entity.setMetadata(metadataJson(dto.getMetadata()));
 
-        var saved = slotRepository.save(entity);
-        return toDto(saved);
+            var saved = saveChecked(entity);
+            if (!slotProperties.isOverlapConstraint()) {
+                overlapIndex.onSaved(doctorId, slotId, saved.getStartTime(), saved.getEndTime());
+            }
+            var event = SlotEvent.updated(doctorId, slotId, saved.getStartTime(), saved.getEndTime(), saved.getStatus());
+            AfterCommit.run(() -> events.publishEvent(event));
+            return toDto(saved);
+        });
     }
 
     @Override
@@ -137,6 +207,131 @@ public class SlotServiceImpl implements SlotService {
             throw new SecurityException("not the owner");
         }
         slotRepository.delete(entity);
+        if (!slotProperties.isOverlapConstraint()) overlapIndex.onDeleted(doctorId, slotId);
+        AfterCommit.run(() -> events.publishEvent(SlotEvent.deleted(doctorId, slotId)));
+    }
+
+    @Override
+    @Transactional
+    /**
+     * Expande um modelo semanal de agenda e persiste todos os slots em uma única transação.
+     *
+     * A inserção usa JDBC batch. Com a constraint do banco ativa a sobreposição é detectada
+     * pelo próprio INSERT; sem ela a checagem é feita uma vez para todo o período (uma query +
+     * varredura linear). Tudo ou nada: qualquer conflito aborta o lote.
+     *
+     * @return quantidade de slots criados
+     * @throws IllegalArgumentException modelo inválido, médico inexistente ou metadata inválida
+     * @throws SlotOverlapException se algum slot gerado intersectar um slot existente
+     */
+    public int generateSlots(UUID doctorId, ScheduleTemplateRequest template) {
+        return metrics.record("generateSlots", () -> {
+            var generated = ScheduleTemplateExpander.expand(template);
+            if (generated.isEmpty()) return 0;
+
+            if (!doctorRepository.existsById(doctorId)) {
+                throw new IllegalArgumentException("doctor not found");
+            }
+
+            if (!slotProperties.isOverlapConstraint()) {
+                var rangeStart = generated.get(0).startTime();
+                var rangeEnd = generated.get(generated.size() - 1).endTime();
+                var existing = slotRepository.findIntervalsOverlapping(doctorId, rangeStart, rangeEnd);
+                var conflict = firstConflict(generated, existing);
+                if (conflict != null) {
+                    throw new SlotOverlapException("generated slot at " + conflict.startTime() + " overlaps with existing slot");
+                }
+            }
+
+            try {
+                slotBatchWriter.insertAvailable(doctorId, generated, metadataJson(template.getMetadata()));
+            } catch (DataIntegrityViolationException e) {
+                if (isOverlapViolation(e)) throw new SlotOverlapException("generated slot overlaps with existing slot");
+                throw e;
+            }
+            if (!slotProperties.isOverlapConstraint()) overlapIndex.onSavedAll(doctorId, generated);
+            AfterCommit.run(() -> generated.forEach(g ->
+                events.publishEvent(SlotEvent.created(doctorId, g.id(), g.startTime(), g.endTime(), "available"))));
+            return generated.size();
+        });
+    }
+
+    /**
+     * Varredura linear de duas listas ordenadas por início; retorna o primeiro slot gerado
+     * que intersecta algum existente, ou null.
+     */
+    private SlotInterval firstConflict(List<SlotInterval> generated, List<SlotInterval> existing) {
+        int i = 0, j = 0;
+        while (i < generated.size() && j < existing.size()) {
+            var g = generated.get(i);
+            var e = existing.get(j);
+            if (!e.endTime().isAfter(g.startTime())) j++;
+            else if (!g.endTime().isAfter(e.startTime())) i++;
+            else return g;
+        }
+        return null;
+    }
+
+    /**
+     * Garante que [start, end) não intersecta outro slot do médico (exceto {@code excludeId}).
+     * Com a constraint do banco ativa não consulta nada: a gravação custa só o INSERT/UPDATE e
+     * o flush em {@link #saveChecked} detecta o conflito. Sem ela usa o índice em memória quando
+     * aquecido e, caso contrário, delega a uma query e aquece o índice.
+     */
+    private void requireNoOverlap(UUID doctorId, OffsetDateTime start, OffsetDateTime end, UUID excludeId) {
+        if (slotProperties.isOverlapConstraint()) return;
+        var indexed = overlapIndex.overlaps(doctorId, start, end, excludeId);
+        boolean overlaps;
+        if (indexed.isPresent()) {
+            overlaps = indexed.get();
+        } else {
+            var overlapping = excludeId == null
+                ? slotRepository.findOverlappingSlots(doctorId, start, end)
+                : slotRepository.findOverlappingSlotsExcludingId(doctorId, start, end, excludeId);
+            overlaps = !overlapping.isEmpty();
+            if (!overlaps) overlapIndex.warm(doctorId);
+        }
+        if (overlaps) {
+            throw new SlotOverlapException("slot overlaps with existing slot");
+        }
+    }
+
+    /**
+     * Grava o slot e força o flush, para que uma violação de sobreposição apareça aqui como
+     * {@link SlotOverlapException} e não no commit.
+     */
+    private JpaSlotEntity saveChecked(JpaSlotEntity entity) {
+        try {
+            var saved = slotRepository.save(entity);
+            slotRepository.flush();
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (isOverlapViolation(e)) throw new SlotOverlapException("slot overlaps with existing slot");
+            throw e;
+        }
+    }
+
+    /**
+     * Identifica violações de sobreposição: exclusion constraint {@code slots_no_overlap} ou o
+     * índice único de início por médico. Percorre as causas e os {@code getNextException} de
+     * lotes JDBC, já que o SQLException original pode estar encadeado em qualquer um deles.
+     */
+    static boolean isOverlapViolation(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (mentionsOverlapConstraint(t.getMessage())) return true;
+            if (t instanceof SQLException sql) {
+                for (var s = sql; s != null; s = s.getNextException()) {
+                    if (EXCLUSION_VIOLATION.equals(s.getSQLState()) || mentionsOverlapConstraint(s.getMessage())) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean mentionsOverlapConstraint(String message) {
+        return message != null && OVERLAP_CONSTRAINTS.stream().anyMatch(message::contains);
     }
 
     private void validateTimes(OffsetDateTime start, OffsetDateTime end) {
@@ -144,22 +339,29 @@ public class SlotServiceImpl implements SlotService {
         if (!start.isBefore(end)) throw new IllegalArgumentException("start must be before end");
     }
 
-    private SlotDto toDto(JpaSlotEntity e) {
+    // package-private para os benchmarks JMH (src/jmh)
+    SlotDto toDto(JpaSlotEntity e) {
         var d = new SlotDto();
         d.setId(e.getId());
         d.setStart(e.getStartTime());
         d.setEnd(e.getEndTime());
         d.setStatus(e.getStatus());
-        var meta = e.getMetadata();
-        if (meta == null) d.setMetadata(null);
-        else {
-            try {
-                d.setMetadata(objectMapper.readValue(meta, Object.class));
-            } catch (Exception ex) {
-                // fallback
-                d.setMetadata(meta);
-            }
-        }
+        // a coluna é jsonb, então o texto já é JSON válido: vai para a resposta sem parse
+        d.setMetadata(e.getMetadata() == null ? null : new RawJson(e.getMetadata()));
         return d;
     }
+
+    /**
+     * Texto JSON a gravar na coluna metadata. {@link RawJson} (requisições HTTP) já foi validado
+     * na desserialização e é gravado como está; outros objetos são serializados.
+     */
+    private String metadataJson(Object metadata) {
+        if (metadata == null) return null;
+        if (metadata instanceof RawJson raw) return raw.json();
+        try {
+            return objectMapper.writeValueAsString(metadata);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("invalid metadata JSON", e);
+        }
+    }
 }
@@ -0,0 +1,111 @@
+package com.me.medical.application.impl;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Timer wheel (hashed) para expirar muitos prazos curtos com custo O(1) por agendamento.
+ *
+ * Uma única thread daemon avança um ponteiro a cada {@code tick} sobre um anel de baldes.
+ * Tarefas agendadas entram numa fila sem lock e só a thread do timer mexe nos baldes, então
+ * agendar não disputa lock com ninguém. A precisão é de um tick: uma tarefa roda entre
+ * {@code delay} e {@code delay + tick} depois de agendada.
+ */
+final class TimerWheel implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(TimerWheel.class);
+
+    private final long tickNanos;
+    private final ArrayDeque<Entry>[] buckets;
+    private final ConcurrentLinkedQueue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private final long startNanos;
+    private volatile boolean running = true;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(String name, Duration tick, int wheelSize) {
+        if (tick.isZero() || tick.isNegative()) throw new IllegalArgumentException("tick must be positive");
+        if (wheelSize < 1) throw new IllegalArgumentException("wheelSize must be positive");
+        this.tickNanos = tick.toNanos();
+        this.buckets = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) buckets[i] = new ArrayDeque<>();
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::loop, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Agenda {@code task} para rodar na thread do timer após {@code delay}.
+     * A tarefa deve ser curta: ela atrasa as demais do mesmo tick.
+     */
+    void schedule(Runnable task, Duration delay) {
+        if (!running) throw new IllegalStateException("timer wheel stopped");
+        pending.add(new Entry(task, System.nanoTime() - startNanos + Math.max(0, delay.toNanos())));
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void loop() {
+        while (running) {
+            long deadline = (tick + 1) * tickNanos;
+            long sleep = deadline - (System.nanoTime() - startNanos);
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep / 1_000_000, (int) (sleep % 1_000_000));
+                } catch (InterruptedException e) {
+                    if (!running) return;
+                }
+                continue;
+            }
+            transferPending();
+            expire(buckets[(int) (tick % buckets.length)]);
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        for (Entry e; (e = pending.poll()) != null; ) {
+            // nunca agenda no passado: o balde corrente é processado logo em seguida
+            long targetTick = Math.max(e.deadlineNanos / tickNanos, tick);
+            e.remainingRounds = (targetTick - tick) / buckets.length;
+            buckets[(int) (targetTick % buckets.length)].add(e);
+        }
+    }
+
+    private void expire(ArrayDeque<Entry> bucket) {
+        for (Iterator<Entry> it = bucket.iterator(); it.hasNext(); ) {
+            var e = it.next();
+            if (e.remainingRounds > 0) {
+                e.remainingRounds--;
+                continue;
+            }
+            it.remove();
+            try {
+                e.task.run();
+            } catch (RuntimeException ex) {
+                log.warn("Timer wheel task failed: {}", ex.getMessage(), ex);
+            }
+        }
+    }
+
+    private static final class Entry {
+        final Runnable task;
+        final long deadlineNanos;
+        long remainingRounds;
+
+        Entry(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
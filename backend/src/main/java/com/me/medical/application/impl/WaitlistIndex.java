@@ -0,0 +1,116 @@
+package com.me.medical.application.impl;
+
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Filas de espera por médico em memória, usadas para oferecer slots liberados.
+ *
+ * Cada médico tem um conjunto ordenado por prioridade (ordem de chegada). Um slot liberado
+ * é casado percorrendo a fila do médico a partir do primeiro da fila até a primeira janela
+ * que contém o slot: nenhum acesso ao banco no caminho do casamento. A tabela
+ * {@code waitlist_entries} é a fonte durável e recarrega o índice na inicialização.
+ * Entradas com a janela já encerrada são descartadas ao serem percorridas e por {@link #expire}.
+ */
+@Component
+public class WaitlistIndex {
+    private static final Comparator<Entry> PRIORITY = Comparator.comparing(Entry::createdAt).thenComparing(Entry::id);
+
+    private final Map<UUID, NavigableSet<Entry>> queues = new ConcurrentHashMap<>();
+
+    /**
+     * Paciente aguardando um slot do médico que caiba em [windowStart, windowEnd).
+     */
+    public record Entry(UUID id, UUID doctorId, UUID patientId, OffsetDateTime windowStart,
+                        OffsetDateTime windowEnd, OffsetDateTime createdAt) {
+        boolean fits(OffsetDateTime start, OffsetDateTime end) {
+            return !start.isBefore(windowStart) && !end.isAfter(windowEnd);
+        }
+
+        boolean endedBy(OffsetDateTime now) {
+            return !windowEnd.isAfter(now);
+        }
+    }
+
+    public void add(Entry entry) {
+        queues.compute(entry.doctorId(), (id, queue) -> {
+            var current = queue != null ? queue : new TreeSet<>(PRIORITY);
+            current.add(entry);
+            return current;
+        });
+    }
+
+    public void remove(Entry entry) {
+        queues.computeIfPresent(entry.doctorId(), (id, queue) -> {
+            queue.remove(entry);
+            return queue.isEmpty() ? null : queue;
+        });
+    }
+
+    /**
+     * Retira da fila e devolve a entrada de maior prioridade cuja janela contém [start, end),
+     * ou null. Quem recebe a entrada deve devolvê-la com {@link #add} se não conseguir usá-la.
+     * Entradas com a janela encerrada encontradas no caminho são removidas (a tabela é
+     * atualizada por {@code WaitlistServiceImpl.expireEnded}).
+     */
+    public Entry claimMatch(UUID doctorId, OffsetDateTime start, OffsetDateTime end) {
+        var now = OffsetDateTime.now();
+        var claimed = new Entry[1];
+        queues.computeIfPresent(doctorId, (id, queue) -> {
+            for (var it = queue.iterator(); it.hasNext(); ) {
+                var entry = it.next();
+                if (entry.endedBy(now)) {
+                    it.remove();
+                } else if (entry.fits(start, end)) {
+                    it.remove();
+                    claimed[0] = entry;
+                    break;
+                }
+            }
+            return queue.isEmpty() ? null : queue;
+        });
+        return claimed[0];
+    }
+
+    /**
+     * Remove de todas as filas as entradas cuja janela terminou até {@code now}.
+     *
+     * @return quantas entradas foram removidas
+     */
+    public int expire(OffsetDateTime now) {
+        var removed = new int[1];
+        for (var doctorId : queues.keySet()) {
+            queues.computeIfPresent(doctorId, (id, queue) -> {
+                int before = queue.size();
+                queue.removeIf(e -> e.endedBy(now));
+                removed[0] += before - queue.size();
+                return queue.isEmpty() ? null : queue;
+            });
+        }
+        return removed[0];
+    }
+
+    public int size(UUID doctorId) {
+        // lê dentro do compute: as filas só são alteradas sob o lock do mapa
+        var size = new int[1];
+        queues.computeIfPresent(doctorId, (id, queue) -> {
+            size[0] = queue.size();
+            return queue;
+        });
+        return size[0];
+    }
+
+    /**
+     * Descarta todo o conteúdo (recarga a partir da tabela).
+     */
+    public void clear() {
+        queues.clear();
+    }
+}
@@ -0,0 +1,241 @@
+package com.me.medical.application.impl;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.me.medical.application.AppointmentService;
+import com.me.medical.application.WaitlistService;
+import com.me.medical.application.dto.SlotEvent;
+import com.me.medical.application.dto.WaitlistEntryDto;
+import com.me.medical.infra.DoctorRepository;
+import com.me.medical.infra.JpaWaitlistEntryEntity;
+import com.me.medical.infra.PatientRepository;
+import com.me.medical.infra.WaitlistEntryRepository;
+
+/**
+ * Lista de espera por médico com preenchimento automático de slots liberados.
+ *
+ * Quando um slot fica disponível (cancelamento ou criação), o evento publicado após o commit
+ * é casado com a fila em memória do médico ({@link WaitlistIndex}) e o primeiro paciente
+ * compatível é reservado numa transação própria, numa thread dedicada. Se outro paciente
+ * reservar o slot antes, ou o slot sumir/mudar de médico, a entrada volta para a fila na
+ * mesma posição. Entradas cuja janela já terminou expiram no índice e na tabela a cada minuto.
+ */
+@Service
+public class WaitlistServiceImpl implements WaitlistService, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(WaitlistServiceImpl.class);
+    private static final long EXPIRE_INTERVAL_MS = 60_000;
+
+    private final WaitlistEntryRepository repository;
+    private final WaitlistIndex index;
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+    private final AppointmentService appointmentService;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService filler = Executors.newSingleThreadScheduledExecutor(r -> {
+        var t = new Thread(r, "waitlist-autofill");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public WaitlistServiceImpl(WaitlistEntryRepository repository, WaitlistIndex index,
+                               DoctorRepository doctorRepository, PatientRepository patientRepository,
+                               AppointmentService appointmentService, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.index = index;
+        this.doctorRepository = doctorRepository;
+        this.patientRepository = patientRepository;
+        this.appointmentService = appointmentService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        filler.scheduleWithFixedDelay(this::expireEnded, EXPIRE_INTERVAL_MS, EXPIRE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Recarrega as entradas pendentes da tabela para o índice em memória. Janelas já
+     * encerradas ficam de fora; a próxima expiração as marca na tabela.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadWaiting() {
+        index.clear();
+        var now = OffsetDateTime.now();
+        repository.findByStatus("waiting").stream()
+            .filter(e -> e.getWindowEnd().isAfter(now))
+            .forEach(e -> index.add(toEntry(e)));
+    }
+
+    /**
+     * Expira as entradas cuja janela terminou: some do índice (inclusive de médicos sem
+     * eventos) e passa a 'expired' na tabela. Roda na thread do preenchimento.
+     */
+    void expireEnded() {
+        var now = OffsetDateTime.now();
+        try {
+            int dropped = index.expire(now);
+            int updated = transactionTemplate.execute(tx -> repository.markExpired(now));
+            if (dropped > 0 || updated > 0) log.debug("Waitlist expired {} entries ({} in index)", updated, dropped);
+        } catch (RuntimeException e) {
+            // uma falha não pode cancelar as próximas execuções agendadas
+            log.warn("Waitlist expiry failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    @Transactional
+    /**
+     * Coloca o paciente na lista de espera do médico para qualquer slot dentro de [from, to).
+     *
+     * @throws IllegalArgumentException janela inválida ou médico/paciente inexistente
+     */
+    public WaitlistEntryDto join(UUID doctorId, UUID patientId, OffsetDateTime from, OffsetDateTime to) {
+        if (from == null || to == null) throw new IllegalArgumentException("from and to required");
+        if (!from.isBefore(to)) throw new IllegalArgumentException("from must be before to");
+        if (!to.isAfter(OffsetDateTime.now())) throw new IllegalArgumentException("window already ended");
+        if (!doctorRepository.existsById(doctorId)) throw new IllegalArgumentException("doctor not found");
+        if (!patientRepository.existsById(patientId)) throw new IllegalArgumentException("patient not found");
+
+        var entity = new JpaWaitlistEntryEntity();
+        entity.setId(UUID.randomUUID());
+        entity.setDoctorId(doctorId);
+        entity.setPatientId(patientId);
+        entity.setWindowStart(from);
+        entity.setWindowEnd(to);
+        entity.setStatus("waiting");
+        entity.setCreatedAt(OffsetDateTime.now());
+        var saved = repository.save(entity);
+
+        var entry = toEntry(saved);
+        AfterCommit.run(() -> index.add(entry));
+        return toDto(saved);
+    }
+
+    @Override
+    @Transactional
+    /**
+     * Retira o paciente da lista de espera.
+     *
+     * @throws IllegalArgumentException se a entrada não existir
+     * @throws SecurityException se a entrada for de outro paciente
+     * @throws IllegalStateException se a entrada já foi atendida ou cancelada
+     */
+    public void leave(UUID entryId, UUID patientId) {
+        var entity = repository.findById(entryId)
+            .orElseThrow(() -> new IllegalArgumentException("waitlist entry not found"));
+        if (!entity.getPatientId().equals(patientId)) throw new SecurityException("not the owner");
+        if (repository.markCancelled(entryId) == 0) throw new IllegalStateException("waitlist entry not waiting");
+
+        var entry = toEntry(entity);
+        AfterCommit.run(() -> index.remove(entry));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<WaitlistEntryDto> listWaiting(UUID patientId) {
+        return repository.findByPatientIdAndStatus(patientId, "waiting").stream()
+            .map(this::toDto)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Oferece à lista de espera os slots que ficaram disponíveis. Roda na thread de quem
+     * publicou (após o commit) apenas para enfileirar o preenchimento.
+     */
+    @EventListener
+    public void onSlotEvent(SlotEvent event) {
+        boolean freed = SlotEvent.RELEASED.equals(event.type())
+            || (SlotEvent.CREATED.equals(event.type()) && "available".equals(event.status()));
+        if (!freed || event.start() == null || !event.start().isAfter(OffsetDateTime.now())) return;
+        filler.execute(() -> fill(event));
+    }
+
+    /**
+     * Reserva o slot para o primeiro paciente compatível da fila. Entradas de pacientes que
+     * não podem mais reservar (paciente removido, ou que saiu da fila durante a oferta) são
+     * descartadas e o próximo é tentado. Falhas do lado do slot (já reservado, removido ou
+     * de outro médico) devolvem a entrada à fila e encerram a oferta: o próximo paciente
+     * falharia pelo mesmo motivo.
+     */
+    void fill(SlotEvent event) {
+        while (true) {
+            var entry = index.claimMatch(event.doctorId(), event.start(), event.end());
+            if (entry == null) return;
+            try {
+                transactionTemplate.executeWithoutResult(tx -> {
+                    var created = appointmentService.createAppointment(event.doctorId(), event.slotId(), entry.patientId());
+                    if (repository.markFulfilled(entry.id(), created.getId()) == 0) {
+                        // o paciente saiu da fila durante a oferta: desfaz a reserva
+                        throw new EntryNotWaitingException();
+                    }
+                });
+                log.debug("Slot {} auto-booked from waitlist entry {}", event.slotId(), entry.id());
+                return;
+            } catch (IllegalStateException e) {
+                // slot já reservado por outro caminho: a entrada continua na fila
+                index.add(entry);
+                return;
+            } catch (EntryNotWaitingException e) {
+                // a desistência já tirou a entrada da tabela e do índice
+                log.debug("Waitlist entry {} left during the offer", entry.id());
+            } catch (IllegalArgumentException e) {
+                if (patientRepository.existsById(entry.patientId())) {
+                    // slot removido ou de outro médico: não é culpa do paciente
+                    index.add(entry);
+                    log.debug("Waitlist offer of slot {} aborted: {}", event.slotId(), e.getMessage());
+                    return;
+                }
+                transactionTemplate.executeWithoutResult(tx -> repository.markCancelled(entry.id()));
+                log.debug("Waitlist entry {} dropped: {}", entry.id(), e.getMessage());
+            } catch (RuntimeException e) {
+                index.add(entry);
+                log.warn("Waitlist auto-fill failed for slot {}: {}", event.slotId(), e.getMessage(), e);
+                return;
+            }
+        }
+    }
+
+    private WaitlistIndex.Entry toEntry(JpaWaitlistEntryEntity e) {
+        return new WaitlistIndex.Entry(e.getId(), e.getDoctorId(), e.getPatientId(), e.getWindowStart(),
+            e.getWindowEnd(), e.getCreatedAt());
+    }
+
+    private WaitlistEntryDto toDto(JpaWaitlistEntryEntity e) {
+        var d = new WaitlistEntryDto();
+        d.setId(e.getId());
+        d.setDoctorId(e.getDoctorId());
+        d.setPatientId(e.getPatientId());
+        d.setFrom(e.getWindowStart());
+        d.setTo(e.getWindowEnd());
+        d.setStatus(e.getStatus());
+        d.setAppointmentId(e.getAppointmentId());
+        d.setCreatedAt(e.getCreatedAt());
+        return d;
+    }
+
+    @Override
+    public void destroy() {
+        filler.shutdownNow();
+    }
+
+    /**
+     * A entrada deixou de estar 'waiting' entre a oferta e a confirmação; desfaz a reserva.
+     */
+    private static final class EntryNotWaitingException extends RuntimeException {
+        EntryNotWaitingException() {
+            super("waitlist entry no longer waiting", null, false, false);
+        }
+    }
+}
@@ -2,12 +2,13 @@ package com.me.medical.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.me.medical.application.HealthUseCase;
 import com.me.medical.application.impl.HealthUseCaseImpl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class ApplicationConfig {
 
@@ -16,9 +17,12 @@ public class ApplicationConfig {
         return new HealthUseCaseImpl();
     }
 
+    /**
+     * BCrypt executado em pool dedicado e limitado (ver {@link BoundedPasswordEncoder}).
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties props, MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(props, meterRegistry);
     }
 
     @Bean
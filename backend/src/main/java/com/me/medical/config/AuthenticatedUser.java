@@ -0,0 +1,28 @@
+package com.me.medical.config;
+
+import java.security.Principal;
+import java.util.UUID;
+
+/**
+ * Principal colocado no SecurityContext pelo {@link JwtAuthenticationFilter}.
+ *
+ * Além do id do usuário ({@code sub}) carrega o id do perfil (doctor ou patient) emitido
+ * no claim {@value JwtTokenProvider#PROFILE_ID_CLAIM}, permitindo autorizar e identificar
+ * o usuário sem consultar o banco. {@code profileId} é null para tokens antigos ou
+ * usuários sem perfil; nesses casos os controllers recorrem ao banco.
+ */
+public record AuthenticatedUser(UUID userId, String role, UUID profileId) implements Principal {
+
+    /**
+     * Mantém {@code Authentication.getName()} igual ao id do usuário, como antes do principal tipado.
+     */
+    @Override
+    public String getName() {
+        return userId.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
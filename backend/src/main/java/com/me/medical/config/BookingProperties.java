@@ -0,0 +1,80 @@
+package com.me.medical.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Configurações da reserva de slots (prefixo {@code booking}).
+ */
+@Component
+@ConfigurationProperties(prefix = "booking")
+@Getter
+@Setter
+public class BookingProperties {
+    /**
+     * Estratégia usada por {@code createAppointment}.
+     */
+    private Strategy strategy = Strategy.PESSIMISTIC;
+
+    /**
+     * Por quanto tempo um hold retém o slot antes de liberá-lo automaticamente.
+     */
+    private Duration holdTtl = Duration.ofMinutes(5);
+
+    /**
+     * Holds ativos por paciente; acima disso novos holds respondem 409.
+     */
+    private int maxHoldsPerPatient = 3;
+
+    /**
+     * Tempo máximo que um paciente retém o mesmo slot somando as renovações.
+     */
+    private Duration holdMaxDuration = Duration.ofMinutes(15);
+
+    /**
+     * Por quanto tempo a resposta de uma Idempotency-Key é guardada.
+     */
+    private Duration idempotencyTtl = Duration.ofHours(24);
+
+    /**
+     * Respostas de Idempotency-Key mantidas em memória (LRU); as demais são lidas da tabela.
+     */
+    private int idempotencyCacheSize = 10_000;
+
+    /**
+     * Modo fila: com {@code Prefer: respond-async} a reserva é enfileirada e devolve um ticket.
+     */
+    private boolean queueEnabled = false;
+
+    /**
+     * Capacidade total da fila de reservas; acima disso os pedidos recebem 503.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * Partições (uma thread escritora cada); todos os pedidos de um médico caem na mesma.
+     */
+    private int queuePartitions = 4;
+
+    /**
+     * Reservas gravadas por transação pelo escritor de cada partição.
+     */
+    private int queueBatchSize = 50;
+
+    /**
+     * Por quanto tempo o resultado de um ticket concluído fica disponível para consulta.
+     */
+    private Duration ticketTtl = Duration.ofMinutes(10);
+
+    public enum Strategy {
+        /** SELECT ... FOR UPDATE no slot, validações e saves com o lock retido. */
+        PESSIMISTIC,
+        /** UPDATE condicional único; o número de linhas afetadas decide o vencedor. */
+        CONDITIONAL_UPDATE
+    }
+}
@@ -0,0 +1,128 @@
+package com.me.medical.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.me.medical.application.AuthOverloadedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * {@link PasswordEncoder} BCrypt que executa encode/matches em um pool dedicado e limitado.
+ *
+ * O BCrypt é deliberadamente caro em CPU; executado nas threads do Tomcat, um pico de
+ * logins ocupa todos os núcleos e atrasa o restante da API. Aqui no máximo
+ * {@code threads} hashes rodam em paralelo e até {@code queueCapacity} aguardam; além
+ * disso a chamada falha imediatamente com {@link AuthOverloadedException}.
+ *
+ * Métricas: {@code auth.hashing.queue.size}, {@code auth.hashing.active},
+ * {@code auth.hashing.wait} (tempo na fila), {@code auth.hashing.duration{op}} e
+ * {@code auth.hashing.rejected}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$.{53}$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordHashingProperties props, MeterRegistry meterRegistry) {
+        this.strength = props.getBcryptStrength();
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.timeoutMs = props.getTimeoutMs();
+
+        var threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(props.getThreads(), props.getThreads(), 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, props.getQueueCapacity())), r -> {
+                var t = new Thread(r, "password-hashing-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.hashing.queue.size", executor, e -> e.getQueue().size())
+            .description("Operações de hashing aguardando thread").register(meterRegistry);
+        Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Operações de hashing em execução").register(meterRegistry);
+        this.waitTimer = Timer.builder("auth.hashing.wait")
+            .description("Tempo na fila do pool de hashing").register(meterRegistry);
+        this.encodeTimer = Timer.builder("auth.hashing.duration").tag("op", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.hashing.duration").tag("op", "matches").register(meterRegistry);
+        this.rejected = Counter.builder("auth.hashing.rejected")
+            .description("Operações de hashing recusadas por fila cheia ou timeout").register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Indica que o hash foi gerado com custo diferente do configurado (maior ou menor),
+     * para que o login refaça o hash com o custo atual. Não usa o pool: só lê o prefixo.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) return false;
+        var m = BCRYPT_PATTERN.matcher(encodedPassword);
+        return m.matches() && Integer.parseInt(m.group(1)) != strength;
+    }
+
+    private <T> T submit(Timer timer, Callable<T> task) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new AuthOverloadedException("password hashing queue is full");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new AuthOverloadedException("password hashing timed out");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
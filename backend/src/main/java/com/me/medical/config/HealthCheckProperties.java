@@ -0,0 +1,21 @@
+package com.me.medical.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Configurações do health check do sistema médico (prefixo {@code health.medical-system}).
+ */
+@Component
+@ConfigurationProperties(prefix = "health.medical-system")
+@Getter
+@Setter
+public class HealthCheckProperties {
+    /** Por quanto tempo o resultado é reaproveitado entre probes; 0 desabilita o cache. */
+    private long cacheTtlMs = 10_000;
+    /** Tempo máximo de cada verificação; ao estourar ela é reportada como TIMEOUT e cancelada no banco. */
+    private long checkTimeoutMs = 2_000;
+}
@@ -2,6 +2,7 @@ package com.me.medical.config;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,10 +22,12 @@ import jakarta.servlet.http.HttpServletResponse;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtTokenProvider tokenProvider;
+    private final VerifiedTokenCache tokenCache;
     private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, VerifiedTokenCache tokenCache) {
         this.tokenProvider = tokenProvider;
+        this.tokenCache = tokenCache;
     }
 
     @Override
@@ -37,15 +40,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
             try {
-                Claims claims = tokenProvider.parseClaims(token);
-                String userId = claims.getSubject();
-                String role = claims.get("role", String.class);
-                log.debug("JWT parsed successfully: subject={} role={}", userId, role);
+                var verified = verify(token);
+                var principal = new AuthenticatedUser(UUID.fromString(verified.subject()), verified.role(),
+                        verified.profileId() != null ? UUID.fromString(verified.profileId()) : null);
+                log.debug("JWT accepted: subject={} role={} profileId={}",
+                        principal.userId(), principal.role(), principal.profileId());
 
-                var auth = new UsernamePasswordAuthenticationToken(userId, null,
-                        List.of(new SimpleGrantedAuthority(role)));
+                var auth = new UsernamePasswordAuthenticationToken(principal, null,
+                        List.of(new SimpleGrantedAuthority(principal.role())));
                 SecurityContextHolder.getContext().setAuthentication(auth);
-                log.debug("Authentication set in SecurityContext for user: {}", userId);
+                log.debug("Authentication set in SecurityContext for user: {}", principal.userId());
             } catch (Exception e) {
                 // token inválido, não autentica
                 log.warn("JWT validation failed for request {} {}: {}",
@@ -58,4 +62,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Resolve o token pelo cache de tokens verificados; só valida a assinatura em cache miss.
+     */
+    private VerifiedTokenCache.VerifiedToken verify(String token) {
+        String digest = VerifiedTokenCache.digest(token);
+        var cached = tokenCache.get(digest);
+        if (cached != null) return cached;
+
+        Claims claims = tokenProvider.parseClaims(token);
+        var verified = new VerifiedTokenCache.VerifiedToken(claims.getSubject(), claims.get("role", String.class),
+                claims.get(JwtTokenProvider.PROFILE_ID_CLAIM, String.class),
+                claims.getExpiration() != null ? claims.getExpiration().getTime() : 0L);
+        // tokens sem exp não são cacheados (expiresAt 0 já estaria expirado)
+        if (claims.getExpiration() != null) tokenCache.put(digest, verified);
+        return verified;
+    }
 }
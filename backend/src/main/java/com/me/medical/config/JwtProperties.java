@@ -12,4 +12,6 @@ import lombok.Setter;
 public class JwtProperties {
     private String secret;
     private long expirationMs;
+    /** Quantidade máxima de tokens verificados mantidos em cache pelo filtro JWT. */
+    private int cacheMaxSize = 10_000;
 }
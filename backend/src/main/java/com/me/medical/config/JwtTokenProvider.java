@@ -4,37 +4,63 @@ import java.security.Key;
 import java.util.Date;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 
 public class JwtTokenProvider {
+    /** Claim com o id do perfil (doctor ou patient) do usuário. */
+    public static final String PROFILE_ID_CLAIM = "pid";
+
     private final JwtProperties props;
+    // chave HMAC e parser são imutáveis e thread-safe; reconstruídos apenas se o segredo mudar
+    private volatile SigningMaterial material;
 
     public JwtTokenProvider(JwtProperties props) {
         this.props = props;
     }
 
     public String createToken(String userId, String role) {
+        return createToken(userId, role, null);
+    }
+
+    /**
+     * Cria o token incluindo o id do perfil (doctor/patient) no claim {@value #PROFILE_ID_CLAIM}.
+     * Com {@code profileId} null o claim é omitido.
+     */
+    public String createToken(String userId, String role, String profileId) {
         Date now = new Date();
         Date exp = new Date(now.getTime() + props.getExpirationMs());
-        Key key = Keys.hmacShaKeyFor(props.getSecret().getBytes());
 
-        return Jwts.builder()
+        var builder = Jwts.builder()
             .setSubject(userId)
             .claim("role", role)
             .setIssuedAt(now)
-            .setExpiration(exp)
-            .signWith(key, SignatureAlgorithm.HS256)
+            .setExpiration(exp);
+        if (profileId != null) builder.claim(PROFILE_ID_CLAIM, profileId);
+        return builder
+            .signWith(signingMaterial().key(), SignatureAlgorithm.HS256)
             .compact();
     }
 
     public Claims parseClaims(String token) {
-        Key key = Keys.hmacShaKeyFor(props.getSecret().getBytes());
-        return Jwts.parserBuilder()
-            .setSigningKey(key)
-            .build()
+        return signingMaterial().parser()
             .parseClaimsJws(token)
             .getBody();
     }
+
+    private SigningMaterial signingMaterial() {
+        var secret = props.getSecret();
+        var current = material;
+        if (current == null || !current.secret().equals(secret)) {
+            Key key = Keys.hmacShaKeyFor(secret.getBytes());
+            current = new SigningMaterial(secret, key, Jwts.parserBuilder().setSigningKey(key).build());
+            material = current;
+        }
+        return current;
+    }
+
+    private record SigningMaterial(String secret, Key key, JwtParser parser) {
+    }
 }
@@ -115,7 +115,7 @@ public class OpenApiConfig {
         if (paths.get("/api/appointments/my") != null && paths.get("/api/appointments/my").getGet() != null) {
             var listGet = paths.get("/api/appointments/my").getGet();
             listGet.summary("Listar meus agendamentos")
-                    .description("Lista todos os agendamentos do paciente autenticado")
+                    .description("Lista os agendamentos do paciente autenticado, paginados (page, size) e ordenados pelo início da consulta")
                     .addTagsItem("Agendamentos");
         }
     }
@@ -128,7 +128,12 @@ public class OpenApiConfig {
             .forEach(entry -> {
                 var pathItem = entry.getValue();
                 
-                if (pathItem.getPost() != null) {
+                if (pathItem.getPost() != null && entry.getKey().endsWith("/schedule")) {
+                    pathItem.getPost()
+                            .summary("Gerar agenda")
+                            .description("Gera em lote os slots de um modelo semanal de horários")
+                            .addTagsItem("Slots");
+                } else if (pathItem.getPost() != null) {
                     pathItem.getPost()
                             .summary("Criar slot")
                             .description("Cria um novo horário disponível para o médico")
@@ -138,7 +143,7 @@ public class OpenApiConfig {
                 if (pathItem.getGet() != null) {
                     pathItem.getGet()
                             .summary("Listar slots")
-                            .description("Lista horários do médico (todos para o próprio médico, apenas disponíveis para outros)")
+                            .description("Lista horários do médico na janela [from, to), paginados por cursor no header X-Next-Cursor (todos para o próprio médico, apenas disponíveis para outros)")
                             .addTagsItem("Slots");
                 }
                 
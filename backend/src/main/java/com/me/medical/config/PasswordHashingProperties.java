@@ -0,0 +1,28 @@
+package com.me.medical.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Configurações do hashing de senhas (prefixo {@code auth.password-hashing}).
+ */
+@Component
+@ConfigurationProperties(prefix = "auth.password-hashing")
+@Getter
+@Setter
+public class PasswordHashingProperties {
+    /**
+     * Custo (log2 das rodadas) do BCrypt para novos hashes. Hashes com custo diferente
+     * são refeitos no próximo login bem-sucedido.
+     */
+    private int bcryptStrength = 10;
+    /** Threads dedicadas ao BCrypt; limita quantos núcleos um pico de logins pode ocupar. */
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    /** Tarefas aguardando thread; acima disso a requisição é recusada (429). */
+    private int queueCapacity = 64;
+    /** Tempo máximo de espera (fila + hashing) antes de desistir da requisição. */
+    private long timeoutMs = 5000;
+}
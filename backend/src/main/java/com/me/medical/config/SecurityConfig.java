@@ -66,7 +66,11 @@ public class SecurityConfig {
         config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
 
         // permitir explicitamente Authorization e Content-Type entre outros headers comuns
-        config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept", "Origin", "X-Requested-With"));
+        // Idempotency-Key: repetição segura de POST /appointments; If-None-Match: GET condicional (304)
+        config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept", "Origin", "X-Requested-With",
+            "Idempotency-Key", "If-None-Match"));
+        // cursor de paginação e ETag da listagem de slots; replay e Location das reservas idempotentes
+        config.setExposedHeaders(Arrays.asList("X-Next-Cursor", "ETag", "Idempotent-Replayed", "Location"));
         config.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", config);
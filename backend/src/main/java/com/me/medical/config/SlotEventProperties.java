@@ -0,0 +1,26 @@
+package com.me.medical.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Configurações do stream SSE de eventos de slots (prefixo {@code slots.events}).
+ */
+@Component
+@ConfigurationProperties(prefix = "slots.events")
+@Getter
+@Setter
+public class SlotEventProperties {
+    /** Assinaturas abertas no total; acima disso o subscribe responde 429. */
+    private int maxSubscribers = 2000;
+    /** Assinaturas abertas por médico; acima disso o subscribe responde 429. */
+    private int maxSubscribersPerDoctor = 50;
+    /**
+     * Eventos pendentes por assinante. Um cliente que não consome até o buffer encher é
+     * desconectado; o EventSource reconecta e recarrega a agenda.
+     */
+    private int bufferSize = 64;
+}
@@ -0,0 +1,25 @@
+package com.me.medical.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Configurações da gestão de slots (prefixo {@code slots}).
+ */
+@Component
+@ConfigurationProperties(prefix = "slots")
+@Getter
+@Setter
+public class SlotProperties {
+    /**
+     * O banco garante a não sobreposição pela constraint {@code slots_no_overlap} (migração V7).
+     * Quando true, criação/atualização/geração não consultam slots existentes antes de gravar
+     * (nem o índice em memória): a violação da constraint vira {@code SlotOverlapException}.
+     * Desligado em bancos sem a constraint (H2 dos testes), onde a checagem continua sendo feita
+     * pela aplicação, com o índice em memória e a query como fallback.
+     */
+    private boolean overlapConstraint = false;
+}
@@ -0,0 +1,126 @@
+package com.me.medical.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cache limitado de JWTs já verificados, usado pelo {@link JwtAuthenticationFilter}.
+ *
+ * A SPA envia o mesmo token em várias requisições por página; guardamos subject, role e perfil
+ * indexados pelo SHA-256 do token (o token em si não fica em memória) até o seu
+ * {@code exp}. Leituras e escritas não disputam lock global: o mapa é um
+ * {@link ConcurrentHashMap} e cada entrada guarda o instante do último uso. Quando o mapa passa
+ * de {@code jwt.cache-max-size}, uma única thread descarta os expirados e, se ainda faltar
+ * espaço, a fração {@value #EVICTION_FRACTION} usada há mais tempo (LRU aproximado, em lote).
+ * Expõe as métricas {@code jwt.cache.requests{result=hit|miss}} e {@code jwt.cache.size}.
+ */
+@Component
+public class VerifiedTokenCache {
+    static final double EVICTION_FRACTION = 0.1;
+
+    private final int maxSize;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final Counter hits;
+    private final Counter misses;
+
+    public VerifiedTokenCache(JwtProperties props, MeterRegistry meterRegistry) {
+        this.maxSize = props.getCacheMaxSize();
+        this.hits = Counter.builder("jwt.cache.requests").tag("result", "hit")
+            .description("Tokens JWT resolvidos pelo cache").register(meterRegistry);
+        this.misses = Counter.builder("jwt.cache.requests").tag("result", "miss")
+            .description("Tokens JWT que exigiram verificação de assinatura").register(meterRegistry);
+        Gauge.builder("jwt.cache.size", this, VerifiedTokenCache::size)
+            .description("Tokens JWT verificados em cache").register(meterRegistry);
+    }
+
+    /**
+     * Retorna o token verificado em cache, ou null se ausente ou expirado.
+     */
+    public VerifiedToken get(String digest) {
+        VerifiedToken token = null;
+        var entry = entries.get(digest);
+        if (entry != null) {
+            if (entry.token.expiresAtMillis() <= System.currentTimeMillis()) {
+                entries.remove(digest, entry);
+            } else {
+                entry.lastUsed = System.nanoTime();
+                token = entry.token;
+            }
+        }
+        (token != null ? hits : misses).increment();
+        return token;
+    }
+
+    public void put(String digest, VerifiedToken token) {
+        if (maxSize <= 0) return;
+        entries.put(digest, new Entry(token, System.nanoTime()));
+        if (entries.size() > maxSize) evict();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Remove os expirados e, se o mapa continuar acima do limite, as entradas usadas há mais
+     * tempo até liberar {@value #EVICTION_FRACTION} da capacidade. Liberar em lote amortiza a
+     * varredura; enquanto uma thread despeja, as demais seguem sem esperar (o mapa pode passar
+     * do limite por pouco nesse intervalo).
+     */
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) return;
+        try {
+            long now = System.currentTimeMillis();
+            entries.values().removeIf(e -> e.token.expiresAtMillis() <= now);
+            int excess = entries.size() - maxSize;
+            if (excess <= 0) return;
+            long[] lastUsed = entries.values().stream().mapToLong(e -> e.lastUsed).sorted().toArray();
+            if (lastUsed.length == 0) return;
+            int count = Math.min(Math.max(excess, (int) (maxSize * EVICTION_FRACTION)), lastUsed.length);
+            long cutoff = lastUsed[count - 1];
+            // entradas usadas depois da amostragem ficam com lastUsed maior e sobrevivem
+            entries.values().removeIf(e -> e.lastUsed <= cutoff);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * SHA-256 do token em base64, usado como chave do cache.
+     */
+    public static String digest(String token) {
+        try {
+            var hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Dados do token necessários para montar a Authentication.
+     */
+    public record VerifiedToken(String subject, String role, String profileId, long expiresAtMillis) {
+    }
+
+    private static final class Entry {
+        final VerifiedToken token;
+        volatile long lastUsed;
+
+        Entry(VerifiedToken token, long lastUsed) {
+            this.token = token;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
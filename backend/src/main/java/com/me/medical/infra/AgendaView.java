@@ -0,0 +1,19 @@
+package com.me.medical.infra;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Projeção somente leitura de um item da agenda do médico: agendamento, horário e paciente.
+ * Carregada por uma única query com joins, sem materializar as entidades associadas.
+ */
+public record AgendaView(
+    UUID id,
+    UUID slotId,
+    UUID patientId,
+    String patientName,
+    String status,
+    OffsetDateTime start,
+    OffsetDateTime end,
+    OffsetDateTime createdAt) {
+}
@@ -0,0 +1,33 @@
+package com.me.medical.infra;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Inserção de agendamentos em lote via JDBC batch (uma ida ao banco com
+ * {@code reWriteBatchedInserts}). Participa da transação JPA corrente.
+ */
+@Repository
+public class AppointmentBatchWriter {
+    private static final String INSERT_SQL =
+        "INSERT INTO appointments (id, slot_id, doctor_id, patient_id, status, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AppointmentBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(List<JpaAppointmentEntity> appointments) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, appointments, appointments.size(), (ps, a) -> {
+            ps.setObject(1, a.getId());
+            ps.setObject(2, a.getSlot().getId());
+            ps.setObject(3, a.getDoctor().getId());
+            ps.setObject(4, a.getPatient().getId());
+            ps.setString(5, a.getStatus());
+            ps.setObject(6, a.getCreatedAt());
+        });
+    }
+}
@@ -1,12 +1,32 @@
 package com.me.medical.infra;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<JpaAppointmentEntity, UUID> {
-    List<JpaAppointmentEntity> findByPatientId(UUID patientId);
+    // Agendamentos do paciente já projetados (um único SELECT com joins), ordenados pelo início do slot
+    @Query("SELECT new com.me.medical.infra.AppointmentView(a.id, s.id, d.id, a.patient.id, a.status, a.createdAt,"
+        + " d.name, d.specialty, s.startTime, s.endTime)"
+        + " FROM JpaAppointmentEntity a JOIN a.slot s JOIN a.doctor d"
+        + " WHERE a.patient.id = :patientId ORDER BY s.startTime, a.id")
+    List<AppointmentView> findViewsByPatientId(@Param("patientId") UUID patientId, Pageable page);
+
+    // Agenda do médico em [after, to), keyset em (início do slot, id do slot). Parte dos slots
+    // 'booked' do médico (idx_slots_doctor_status_start) e junta o agendamento ativo de cada um
+    // (idx_appointments_slot_active_cover) e o nome do paciente: um único SELECT por página.
+    @Query("SELECT new com.me.medical.infra.AgendaView(a.id, s.id, p.id, p.name, a.status, s.startTime, s.endTime, a.createdAt)"
+        + " FROM JpaAppointmentEntity a JOIN a.slot s JOIN a.patient p"
+        + " WHERE s.doctor.id = :doctorId AND s.status = 'booked' AND a.status <> 'cancelled'"
+        + " AND s.startTime >= :after AND s.startTime < :to AND (s.startTime > :after OR s.id > :afterId)"
+        + " ORDER BY s.startTime, s.id")
+    List<AgendaView> findAgendaPage(@Param("doctorId") UUID doctorId, @Param("after") OffsetDateTime after,
+                                    @Param("afterId") UUID afterId, @Param("to") OffsetDateTime to, Pageable page);
 }
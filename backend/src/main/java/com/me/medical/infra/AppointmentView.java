@@ -0,0 +1,21 @@
+package com.me.medical.infra;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Projeção somente leitura de um agendamento com os dados de médico e slot já resolvidos.
+ * Carregada por uma única query com joins, sem materializar as entidades associadas.
+ */
+public record AppointmentView(
+    UUID id,
+    UUID slotId,
+    UUID doctorId,
+    UUID patientId,
+    String status,
+    OffsetDateTime createdAt,
+    String doctorName,
+    String doctorSpecialty,
+    OffsetDateTime start,
+    OffsetDateTime end) {
+}
@@ -0,0 +1,33 @@
+package com.me.medical.infra;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<JpaIdempotencyKeyEntity, JpaIdempotencyKeyEntity.Key> {
+
+    // INSERT direto (sem o SELECT do merge); uma chave duplicada falha com DataIntegrityViolationException
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (patient_id, idempotency_key, request_fingerprint, status_code,"
+        + " response_body, created_at, expires_at) VALUES (:patientId, :key, :fingerprint, :status, :body, :createdAt, :expiresAt)",
+        nativeQuery = true)
+    int insert(@Param("patientId") UUID patientId, @Param("key") String key, @Param("fingerprint") String fingerprint,
+               @Param("status") int status, @Param("body") String body,
+               @Param("createdAt") OffsetDateTime createdAt, @Param("expiresAt") OffsetDateTime expiresAt);
+
+    // Remove a chave do paciente se já expirou, liberando-a para reuso
+    @Modifying
+    @Query("DELETE FROM JpaIdempotencyKeyEntity k WHERE k.patientId = :patientId AND k.idempotencyKey = :key AND k.expiresAt <= :now")
+    int deleteIfExpired(@Param("patientId") UUID patientId, @Param("key") String key, @Param("now") OffsetDateTime now);
+
+    // Limpeza das chaves expiradas (usa idx_idempotency_keys_expires)
+    @Modifying
+    @Query("DELETE FROM JpaIdempotencyKeyEntity k WHERE k.expiresAt <= :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
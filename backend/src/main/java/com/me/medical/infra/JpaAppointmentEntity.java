@@ -5,6 +5,7 @@ import java.util.UUID;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -16,7 +17,9 @@ import lombok.Setter;
 /**
  * Entidade JPA representando um agendamento (appointment).
  *
- * Mapeia para a tabela `appointments` criada pela migration V4.
+ * Mapeia para a tabela `appointments` criada pela migration V4. Slot, médico e paciente são
+ * carregados sob demanda; as listagens usam projeções ({@code AppointmentView}, {@code AgendaView})
+ * e não materializam a entidade.
  */
 @Entity
 @Table(name = "appointments")
@@ -27,15 +30,15 @@ public class JpaAppointmentEntity {
     @Id
     private UUID id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "slot_id")
     private JpaSlotEntity slot;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id")
     private JpaDoctorEntity doctor;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id")
     private JpaPatientEntity patient;
 
@@ -0,0 +1,64 @@
+package com.me.medical.infra;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Resposta armazenada de uma criação de agendamento feita com {@code Idempotency-Key}.
+ *
+ * Mapeia para a tabela `idempotency_keys` criada pela migration V8.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@IdClass(JpaIdempotencyKeyEntity.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class JpaIdempotencyKeyEntity {
+    @Id
+    @Column(name = "patient_id")
+    private UUID patientId;
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String idempotencyKey;
+
+    @Column(name = "request_fingerprint", nullable = false, length = 128)
+    private String requestFingerprint;
+
+    @Column(name = "status_code", nullable = false)
+    private int statusCode;
+
+    @Column(name = "response_body", nullable = false, columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+
+    /**
+     * Chave composta (paciente, chave informada pelo cliente).
+     */
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private UUID patientId;
+        private String idempotencyKey;
+    }
+}
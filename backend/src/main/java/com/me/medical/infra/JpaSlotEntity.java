@@ -5,9 +5,12 @@ import java.util.UUID;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -17,17 +20,22 @@ import lombok.Setter;
  * Entidade JPA representando o slot de disponibilidade de um médico.
  *
  * Mantemos a entidade leve e mapeada para a tabela `slots` criada pela migration.
+ * O médico é carregado sob demanda: as consultas com lock travam só a linha do slot, e a
+ * reserva que precisa do nome do médico usa o grafo {@value #BOOKING_GRAPH}.
  */
 @Entity
 @Table(name = "slots")
+@NamedEntityGraph(name = JpaSlotEntity.BOOKING_GRAPH, attributeNodes = @NamedAttributeNode("doctor"))
 @Getter
 @Setter
 @NoArgsConstructor
 public class JpaSlotEntity {
+    public static final String BOOKING_GRAPH = "Slot.booking";
+
     @Id
     private UUID id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id")
     private JpaDoctorEntity doctor;
 
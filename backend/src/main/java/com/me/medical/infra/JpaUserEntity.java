@@ -5,20 +5,30 @@ import java.util.UUID;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+/**
+ * Entidade JPA do usuário (credenciais). A role é carregada sob demanda; login e perfil
+ * usam o grafo {@value #PROFILE_GRAPH} para trazê-la no mesmo SELECT.
+ */
 @Entity
 @Table(name = "users")
+@NamedEntityGraph(name = JpaUserEntity.PROFILE_GRAPH, attributeNodes = @NamedAttributeNode("role"))
 @Getter
 @Setter
 @NoArgsConstructor
 public class JpaUserEntity {
+    public static final String PROFILE_GRAPH = "User.profile";
+
     @Id
     private UUID id;
 
@@ -31,7 +41,7 @@ public class JpaUserEntity {
     @Column(name = "created_at")
     private OffsetDateTime createdAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "role_id")
     private JpaRoleEntity role;
 }
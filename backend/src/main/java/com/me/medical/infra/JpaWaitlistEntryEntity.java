@@ -0,0 +1,50 @@
+package com.me.medical.infra;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entidade JPA representando uma entrada na lista de espera de um médico.
+ *
+ * Mapeia para a tabela `waitlist_entries` criada pela migration V9. As referências são
+ * mantidas como ids: a lista é lida em bloco para o índice em memória e nunca navega
+ * para médico ou paciente.
+ */
+@Entity
+@Table(name = "waitlist_entries")
+@Getter
+@Setter
+@NoArgsConstructor
+public class JpaWaitlistEntryEntity {
+    @Id
+    private UUID id;
+
+    @Column(name = "doctor_id", nullable = false)
+    private UUID doctorId;
+
+    @Column(name = "patient_id", nullable = false)
+    private UUID patientId;
+
+    @Column(name = "window_start", nullable = false)
+    private OffsetDateTime windowStart;
+
+    @Column(name = "window_end", nullable = false)
+    private OffsetDateTime windowEnd;
+
+    @Column(nullable = false)
+    private String status; // waiting | fulfilled | cancelled | expired
+
+    @Column(name = "appointment_id")
+    private UUID appointmentId;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,273 @@
+package com.me.medical.infra;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongFunction;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import com.me.medical.config.HealthCheckProperties;
+
+/**
+ * Verificações do health check do sistema médico (banco e tabelas críticas).
+ *
+ * As contagens vêm de {@code pg_class.reltuples}, a estimativa mantida pelo
+ * ANALYZE/autovacuum, em vez de {@code COUNT(*)}, que varre a tabela inteira. Em bancos
+ * que não são PostgreSQL (H2 nos perfis de desenvolvimento/teste) usa {@code COUNT(*)}.
+ *
+ * As verificações rodam em paralelo, cada uma limitada a {@code checkTimeoutMs} também no
+ * banco (query timeout do JDBC e, no PostgreSQL, {@code SET LOCAL statement_timeout}), então
+ * uma consulta lenta é cancelada em vez de prender a thread. O pool tem fila limitada: se as
+ * threads ainda estão presas, a verificação é recusada e reportada como BUSY em vez de
+ * acumular trabalho.
+ *
+ * O resultado é reaproveitado por {@code cacheTtlMs}: a frequência dos probes do load
+ * balancer deixa de determinar a carga no banco. Vencido o TTL, um único refresh roda em
+ * segundo plano e os probes seguem recebendo o último resultado; só esperam quando ainda não
+ * há resultado ou o cache está desabilitado, e então esperam o mesmo refresh.
+ */
+@Component
+public class MedicalSystemHealthChecker implements DisposableBean {
+    /** Tabelas críticas e suas descrições, na ordem exibida. */
+    private static final Map<String, String> CRITICAL_TABLES = new LinkedHashMap<>();
+    static {
+        CRITICAL_TABLES.put("users", "Sistema de autenticação");
+        CRITICAL_TABLES.put("doctors", "Cadastro de médicos");
+        CRITICAL_TABLES.put("patients", "Cadastro de pacientes");
+        CRITICAL_TABLES.put("slots", "Horários médicos disponíveis");
+        CRITICAL_TABLES.put("appointments", "Agendamentos realizados");
+    }
+
+    private static final String ESTIMATES_SQL =
+        "SELECT c.relname, c.reltuples::bigint FROM pg_class c "
+            + "WHERE c.relkind IN ('r', 'p') AND c.relnamespace = current_schema()::regnamespace "
+            + "AND c.relname IN ('users', 'doctors', 'patients', 'slots', 'appointments')";
+
+    private final DataSource dataSource;
+    private final HealthCheckProperties props;
+    private final ThreadPoolExecutor executor;
+    private final AtomicReference<CompletableFuture<CachedResult>> refreshing = new AtomicReference<>();
+    private volatile CachedResult cached;
+
+    public MedicalSystemHealthChecker(DataSource dataSource, HealthCheckProperties props) {
+        this.dataSource = dataSource;
+        this.props = props;
+        var threadCount = new AtomicInteger();
+        // uma thread por verificação e espaço para um refresh na fila; além disso recusa
+        this.executor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(2), r -> {
+            var t = new Thread(r, "health-check-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Retorna o estado do sistema, do cache se ainda dentro do TTL; vencido, devolve o último
+     * resultado e dispara o refresh em segundo plano.
+     * A chave {@code status} vale "UP" ou "DOWN" (banco inacessível ou lento demais).
+     */
+    public Map<String, Object> check() {
+        var current = cached;
+        if (current != null && current.isFresh()) return current.withCacheInfo(true);
+
+        var refresh = refresh();
+        if (current != null && props.getCacheTtlMs() > 0) return current.withCacheInfo(true);
+        return refresh.join().withCacheInfo(false);
+    }
+
+    /**
+     * Refresh em andamento ou um novo; nunca mais de um ao mesmo tempo.
+     */
+    private CompletableFuture<CachedResult> refresh() {
+        var started = new CompletableFuture<CachedResult>();
+        var running = refreshing.compareAndExchange(null, started);
+        if (running != null) return running;
+
+        runChecks().whenComplete((result, e) -> {
+            var health = e == null ? result : Map.<String, Object>of("status", "DOWN", "error", String.valueOf(e.getMessage()));
+            var entry = new CachedResult(health, System.currentTimeMillis() + props.getCacheTtlMs());
+            cached = entry;
+            refreshing.set(null);
+            started.complete(entry);
+        });
+        return started;
+    }
+
+    private CompletableFuture<Map<String, Object>> runChecks() {
+        long startTime = System.currentTimeMillis();
+        long deadline = startTime + props.getCheckTimeoutMs();
+
+        var database = withTimeout(this::checkDatabaseHealth, deadline);
+        var tables = withTimeout(this::checkCriticalMedicalTables, deadline);
+        return database.thenCombine(tables, (dbHealth, tablesInfo) -> {
+            Map<String, Object> healthInfo = new HashMap<>();
+            healthInfo.put("database", dbHealth);
+            healthInfo.put("medicalTables", tablesInfo);
+            healthInfo.put("timestamp", LocalDateTime.now().toString());
+            healthInfo.put("totalCheckTime", (System.currentTimeMillis() - startTime) + "ms");
+            healthInfo.put("status", "UP".equals(dbHealth.get("status")) ? "UP" : "DOWN");
+            healthInfo.put("component", "Medical Appointment System");
+            return healthInfo;
+        });
+    }
+
+    private CompletableFuture<Map<String, Object>> withTimeout(LongFunction<Map<String, Object>> check, long deadline) {
+        try {
+            return CompletableFuture.supplyAsync(() -> check.apply(deadline), executor)
+                .exceptionally(e -> Map.of("status", "DOWN", "error", String.valueOf(e.getMessage())))
+                .completeOnTimeout(Map.of("status", "TIMEOUT", "error", "check exceeded " + props.getCheckTimeoutMs() + "ms"),
+                    props.getCheckTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // verificações anteriores ainda presas no banco: não empilha mais uma
+            return CompletableFuture.completedFuture(Map.of("status", "BUSY", "error", "previous checks still running"));
+        }
+    }
+
+    /**
+     * Verifica conectividade e performance do banco de dados
+     */
+    private Map<String, Object> checkDatabaseHealth(long deadline) {
+        Map<String, Object> dbInfo = new HashMap<>();
+        long startTime = System.currentTimeMillis();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = prepare(connection, "SELECT 1", deadline);
+             ResultSet resultSet = statement.executeQuery()) {
+
+            long responseTime = System.currentTimeMillis() - startTime;
+
+            if (resultSet.next() && resultSet.getInt(1) == 1) {
+                dbInfo.put("status", "UP");
+                dbInfo.put("type", connection.getMetaData().getDatabaseProductName());
+                dbInfo.put("responseTime", responseTime + "ms");
+                dbInfo.put("connectionPool", "HikariCP");
+
+                if (responseTime > 1000) {
+                    dbInfo.put("warning", "Slow database response detected");
+                }
+            } else {
+                dbInfo.put("status", "DOWN");
+                dbInfo.put("error", "Unexpected query result");
+            }
+        } catch (SQLException e) {
+            dbInfo.put("status", "DOWN");
+            dbInfo.put("error", e.getMessage());
+        }
+
+        return dbInfo;
+    }
+
+    /**
+     * Verifica tabelas críticas do sistema médico usando contagens estimadas.
+     */
+    private Map<String, Object> checkCriticalMedicalTables(long deadline) {
+        Map<String, Object> tablesInfo = new HashMap<>();
+
+        try (Connection connection = dataSource.getConnection()) {
+            boolean postgres = "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+            var counts = postgres ? estimatedCounts(connection, deadline) : exactCounts(connection, deadline);
+
+            for (var table : CRITICAL_TABLES.entrySet()) {
+                Long count = counts.get(table.getKey());
+                if (count == null) throw new SQLException("table not found: " + table.getKey());
+                tablesInfo.put(table.getKey(), Map.of("count", count, "estimated", postgres,
+                    "description", table.getValue()));
+            }
+            tablesInfo.put("status", "All critical medical tables accessible");
+
+        } catch (SQLException e) {
+            tablesInfo.put("status", "ERROR");
+            tablesInfo.put("error", "Could not verify all medical tables: " + e.getMessage());
+        }
+
+        return tablesInfo;
+    }
+
+    /**
+     * Estimativas do planner; -1 indica tabela ainda não analisada (PostgreSQL 14+).
+     * Roda numa transação só de leitura com {@code statement_timeout} em milissegundos, que
+     * o servidor aplica mesmo se o cancelamento do driver não chegar.
+     */
+    private Map<String, Long> estimatedCounts(Connection connection, long deadline) throws SQLException {
+        Map<String, Long> counts = new HashMap<>();
+        connection.setAutoCommit(false);
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET LOCAL statement_timeout = " + remainingMillis(deadline));
+            }
+            try (PreparedStatement statement = prepare(connection, ESTIMATES_SQL, deadline);
+                 ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    counts.put(resultSet.getString(1), resultSet.getLong(2));
+                }
+            }
+        } finally {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+        return counts;
+    }
+
+    private Map<String, Long> exactCounts(Connection connection, long deadline) throws SQLException {
+        Map<String, Long> counts = new HashMap<>();
+        for (var table : CRITICAL_TABLES.keySet()) {
+            try (PreparedStatement statement = prepare(connection, "SELECT COUNT(*) FROM " + table, deadline);
+                 ResultSet resultSet = statement.executeQuery()) {
+                counts.put(table, resultSet.next() ? resultSet.getLong(1) : -1L);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Statement com query timeout do que resta do prazo da verificação, para o banco também
+     * desistir; as consultas de uma verificação dividem o mesmo prazo.
+     */
+    private PreparedStatement prepare(Connection connection, String sql, long deadline) throws SQLException {
+        var remaining = remainingMillis(deadline);
+        var statement = connection.prepareStatement(sql);
+        statement.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(remaining + 999)));
+        return statement;
+    }
+
+    private long remainingMillis(long deadline) throws SQLTimeoutException {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) throw new SQLTimeoutException("check exceeded " + props.getCheckTimeoutMs() + "ms");
+        return remaining;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private record CachedResult(Map<String, Object> result, long expiresAtMillis) {
+        boolean isFresh() {
+            return System.currentTimeMillis() < expiresAtMillis;
+        }
+
+        Map<String, Object> withCacheInfo(boolean fromCache) {
+            var response = new HashMap<>(result);
+            response.put("cached", fromCache);
+            return response;
+        }
+    }
+}
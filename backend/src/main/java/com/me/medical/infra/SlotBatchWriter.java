@@ -0,0 +1,49 @@
+package com.me.medical.infra;
+
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Inserção de slots em lote via JDBC batch.
+ *
+ * Evita o custo por linha do Spring Data (merge + SELECT para ids atribuídos) quando
+ * milhares de slots são publicados de uma vez. Participa da transação JPA corrente.
+ */
+@Repository
+public class SlotBatchWriter {
+    static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL =
+        "INSERT INTO slots (id, doctor_id, start_time, end_time, status, metadata, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SlotBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insere os intervalos como slots 'available' do médico, todos com o mesmo metadata.
+     *
+     * @param metadataJson JSON já serializado ou null
+     */
+    public void insertAvailable(UUID doctorId, List<SlotInterval> slots, String metadataJson) {
+        var createdAt = OffsetDateTime.now();
+        jdbcTemplate.batchUpdate(INSERT_SQL, slots, BATCH_SIZE, (ps, slot) -> {
+            ps.setObject(1, slot.id());
+            ps.setObject(2, doctorId);
+            ps.setObject(3, slot.startTime());
+            ps.setObject(4, slot.endTime());
+            ps.setString(5, "available");
+            // Types.OTHER deixa o servidor inferir jsonb a partir do texto
+            if (metadataJson == null) ps.setNull(6, Types.OTHER);
+            else ps.setObject(6, metadataJson, Types.OTHER);
+            ps.setObject(7, createdAt);
+        });
+    }
+}
@@ -0,0 +1,11 @@
+package com.me.medical.infra;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Projeção leve de um slot contendo apenas id e intervalo [start, end).
+ * Usada para aquecer o índice de sobreposição sem materializar entidades completas.
+ */
+public record SlotInterval(UUID id, OffsetDateTime startTime, OffsetDateTime endTime) {
+}
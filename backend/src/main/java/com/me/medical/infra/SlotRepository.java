@@ -1,17 +1,45 @@
 package com.me.medical.infra;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface SlotRepository extends JpaRepository<JpaSlotEntity, UUID> {
-    List<JpaSlotEntity> findByDoctorId(UUID doctorId);
+
+    // Página keyset de slots do médico em [after, to), ordenada por (start_time, id).
+    // A primeira condição em start_time delimita o range no índice; a segunda desempata pelo id.
+    @Query("SELECT s FROM JpaSlotEntity s WHERE s.doctor.id = :doctorId AND s.startTime >= :after AND s.startTime < :to"
+        + " AND (s.startTime > :after OR s.id > :afterId) ORDER BY s.startTime, s.id")
+    List<JpaSlotEntity> findPage(@Param("doctorId") UUID doctorId, @Param("after") OffsetDateTime after,
+                                 @Param("afterId") UUID afterId, @Param("to") OffsetDateTime to, Pageable page);
+
+    // Mesma página, filtrando por status no banco (usa idx_slots_doctor_status_start)
+    @Query("SELECT s FROM JpaSlotEntity s WHERE s.doctor.id = :doctorId AND s.status = :status AND s.startTime >= :after AND s.startTime < :to"
+        + " AND (s.startTime > :after OR s.id > :afterId) ORDER BY s.startTime, s.id")
+    List<JpaSlotEntity> findPageByStatus(@Param("doctorId") UUID doctorId, @Param("status") String status,
+                                         @Param("after") OffsetDateTime after, @Param("afterId") UUID afterId,
+                                         @Param("to") OffsetDateTime to, Pageable page);
+
+    // Slot com o médico no mesmo SELECT (grafo Slot.booking), para a reserva que devolve o nome do médico.
+    // Sem lock: as consultas com FOR UPDATE continuam sem join para travar só a linha do slot.
+    @EntityGraph(JpaSlotEntity.BOOKING_GRAPH)
+    Optional<JpaSlotEntity> findWithDoctorById(UUID id);
 
     // Retorna slots do médico que se sobrepõem ao intervalo [start, end)
     @Query("SELECT s FROM JpaSlotEntity s WHERE s.doctor.id = :doctorId AND NOT (s.endTime <= :start OR s.startTime >= :end)")
@@ -20,4 +48,50 @@ public interface SlotRepository extends JpaRepository<JpaSlotEntity, UUID> {
     // Mesma query, mas exclui um slot específico (útil para updates)
     @Query("SELECT s FROM JpaSlotEntity s WHERE s.doctor.id = :doctorId AND s.id <> :excludeId AND NOT (s.endTime <= :start OR s.startTime >= :end)")
     List<JpaSlotEntity> findOverlappingSlotsExcludingId(@Param("doctorId") UUID doctorId, @Param("start") OffsetDateTime start, @Param("end") OffsetDateTime end, @Param("excludeId") UUID excludeId);
+
+    // Apenas (id, start, end) dos slots do médico que terminam depois de :after, usado para aquecer o índice de sobreposição em memória
+    @Query("SELECT new com.me.medical.infra.SlotInterval(s.id, s.startTime, s.endTime) FROM JpaSlotEntity s WHERE s.doctor.id = :doctorId AND s.endTime > :after")
+    List<SlotInterval> findIntervalsEndingAfter(@Param("doctorId") UUID doctorId, @Param("after") OffsetDateTime after);
+
+    // Intervalos do médico que intersectam [start, end), ordenados por início (checagem de conflitos em lote)
+    @Query("SELECT new com.me.medical.infra.SlotInterval(s.id, s.startTime, s.endTime) FROM JpaSlotEntity s WHERE s.doctor.id = :doctorId AND s.endTime > :start AND s.startTime < :end ORDER BY s.startTime")
+    List<SlotInterval> findIntervalsOverlapping(@Param("doctorId") UUID doctorId, @Param("start") OffsetDateTime start, @Param("end") OffsetDateTime end);
+
+    // Reserva atômica: marca o slot como booked somente se ainda estiver disponível.
+    // Retorna 1 para o vencedor e 0 para os demais (slot inexistente, de outro médico ou já reservado).
+    @Modifying
+    @Query("UPDATE JpaSlotEntity s SET s.status = 'booked' WHERE s.id = :slotId AND s.doctor.id = :doctorId AND s.status = 'available'")
+    int claimIfAvailable(@Param("slotId") UUID slotId, @Param("doctorId") UUID doctorId);
+
+    // Próximos slots disponíveis do médico após (after, afterId), travados com
+    // SELECT ... FOR UPDATE SKIP LOCKED (lock timeout -2): linhas já travadas por outra
+    // transação são puladas em vez de esperadas, então reservas concorrentes pegam slots diferentes.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT s FROM JpaSlotEntity s WHERE s.doctor.id = :doctorId AND s.status = 'available' AND s.startTime >= :after AND s.startTime < :to"
+        + " AND (s.startTime > :after OR s.id > :afterId) ORDER BY s.startTime, s.id")
+    List<JpaSlotEntity> lockNextAvailable(@Param("doctorId") UUID doctorId, @Param("after") OffsetDateTime after,
+                                          @Param("afterId") UUID afterId, @Param("to") OffsetDateTime to, Pageable page);
+
+    // Mesma busca entre todos os médicos da especialidade (usa idx_slots_available_start)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT s FROM JpaSlotEntity s WHERE s.doctor.specialty = :specialty AND s.status = 'available' AND s.startTime >= :after AND s.startTime < :to"
+        + " AND (s.startTime > :after OR s.id > :afterId) ORDER BY s.startTime, s.id")
+    List<JpaSlotEntity> lockNextAvailableBySpecialty(@Param("specialty") String specialty, @Param("after") OffsetDateTime after,
+                                                     @Param("afterId") UUID afterId, @Param("to") OffsetDateTime to, Pageable page);
+
+    // Trava os slots em ordem canônica (id): lotes concorrentes que se sobrepõem adquirem os
+    // locks na mesma ordem e nunca formam ciclo (deadlock). Uma única consulta para o lote todo;
+    // o médico vem junto (JOIN FETCH) para montar os DTOs, mas o lock fica só nas linhas de slots
+    // (FOR UPDATE OF s no Postgres).
+    @QueryHints(@QueryHint(name = "org.hibernate.lockMode.s", value = "pessimistic_write"))
+    @Query("SELECT s FROM JpaSlotEntity s JOIN FETCH s.doctor WHERE s.id IN :ids ORDER BY s.id")
+    List<JpaSlotEntity> lockAllOrdered(@Param("ids") Collection<UUID> ids);
+
+    // Marca o lote como booked num único UPDATE. Não limpa o contexto de persistência (o que
+    // desanexaria as entidades de uma transação externa): quem chama tira os slots afetados dele
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE JpaSlotEntity s SET s.status = 'booked' WHERE s.id IN :ids AND s.status = 'available'")
+    int markBooked(@Param("ids") Collection<UUID> ids);
 }
@@ -1,5 +1,6 @@
 package com.me.medical.infra;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -8,5 +9,7 @@ import java.util.UUID;
 
 @Repository
 public interface UserRepository extends JpaRepository<JpaUserEntity, UUID> {
+    // login e perfil leem a role: vem no mesmo SELECT (grafo User.profile)
+    @EntityGraph(JpaUserEntity.PROFILE_GRAPH)
     Optional<JpaUserEntity> findByEmail(String email);
 }
@@ -0,0 +1,35 @@
+package com.me.medical.infra;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<JpaWaitlistEntryEntity, UUID> {
+    // Entradas pendentes de todos os médicos, para montar o índice em memória na inicialização
+    List<JpaWaitlistEntryEntity> findByStatus(String status);
+
+    List<JpaWaitlistEntryEntity> findByPatientIdAndStatus(UUID patientId, String status);
+
+    // Marca a entrada como atendida somente se ainda estiver aguardando
+    @Modifying
+    @Query("UPDATE JpaWaitlistEntryEntity w SET w.status = 'fulfilled', w.appointmentId = :appointmentId"
+        + " WHERE w.id = :id AND w.status = 'waiting'")
+    int markFulfilled(@Param("id") UUID id, @Param("appointmentId") UUID appointmentId);
+
+    // Expira as entradas pendentes cuja janela já terminou
+    @Modifying
+    @Query("UPDATE JpaWaitlistEntryEntity w SET w.status = 'expired' WHERE w.status = 'waiting' AND w.windowEnd <= :now")
+    int markExpired(@Param("now") OffsetDateTime now);
+
+    // Encerra a entrada (desistência do paciente ou paciente/médico inexistente)
+    @Modifying
+    @Query("UPDATE JpaWaitlistEntryEntity w SET w.status = 'cancelled' WHERE w.id = :id AND w.status = 'waiting'")
+    int markCancelled(@Param("id") UUID id);
+}
@@ -0,0 +1,8 @@
+-- V10__add_slots_available_index.sql
+
+-- Reserva do próximo slot disponível por especialidade (FOR UPDATE SKIP LOCKED): varre os
+-- slots disponíveis em ordem de início sem passar pelos já reservados.
+CREATE INDEX IF NOT EXISTS idx_slots_available_start ON slots(start_time, id) WHERE status = 'available';
+
+-- Filtro dos médicos da especialidade
+CREATE INDEX IF NOT EXISTS idx_doctors_specialty ON doctors(specialty);
@@ -0,0 +1,6 @@
+-- V11__add_doctor_agenda_index.sql
+
+-- Agenda do médico: a janela e a ordem (start_time, id) vêm de idx_slots_doctor_status_start
+-- (slots 'booked'); o join com o agendamento ativo de cada slot é resolvido só pelo índice.
+CREATE INDEX IF NOT EXISTS idx_appointments_slot_active_cover ON appointments(slot_id)
+  INCLUDE (id, patient_id, status, created_at) WHERE status <> 'cancelled';
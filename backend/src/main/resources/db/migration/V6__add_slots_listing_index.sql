@@ -0,0 +1,4 @@
+-- V6__add_slots_listing_index.sql
+
+-- Listagem paginada de slots por médico/status em janela de tempo (keyset em start_time, id)
+CREATE INDEX IF NOT EXISTS idx_slots_doctor_status_start ON slots(doctor_id, status, start_time, id);
@@ -0,0 +1,11 @@
+-- V7__add_slots_no_overlap_constraint.sql
+
+-- btree_gist permite combinar igualdade em UUID com sobreposição de intervalos no mesmo índice GiST
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Um médico não pode ter dois slots cujos intervalos [start_time, end_time) se intersectem.
+-- Slots adjacentes (fim de um = início do outro) continuam permitidos.
+-- Falha se já existirem slots sobrepostos: corrija os dados antes de migrar.
+ALTER TABLE slots
+  ADD CONSTRAINT slots_no_overlap
+  EXCLUDE USING gist (doctor_id WITH =, tstzrange(start_time, end_time, '[)') WITH &&);
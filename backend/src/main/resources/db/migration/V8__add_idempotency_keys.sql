@@ -0,0 +1,17 @@
+-- V8__add_idempotency_keys.sql
+
+-- Respostas de POST /api/appointments por Idempotency-Key, com escopo por paciente.
+-- request_fingerprint identifica a requisição original (médico + slot) para rejeitar reuso da chave.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+  patient_id UUID NOT NULL REFERENCES patients(id) ON DELETE CASCADE,
+  idempotency_key VARCHAR(255) NOT NULL,
+  request_fingerprint VARCHAR(128) NOT NULL,
+  status_code INTEGER NOT NULL,
+  response_body TEXT NOT NULL,
+  created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+  expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+  PRIMARY KEY (patient_id, idempotency_key)
+);
+
+-- Limpeza periódica das chaves expiradas
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires ON idempotency_keys(expires_at);
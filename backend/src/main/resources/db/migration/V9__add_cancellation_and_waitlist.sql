@@ -0,0 +1,22 @@
+-- V9__add_cancellation_and_waitlist.sql
+
+-- Cancelar um agendamento libera o slot para nova reserva: a unicidade por slot passa a
+-- valer apenas para agendamentos ativos.
+DROP INDEX IF EXISTS idx_appointments_slot_unique;
+CREATE UNIQUE INDEX IF NOT EXISTS idx_appointments_slot_active ON appointments(slot_id) WHERE status <> 'cancelled';
+
+-- Lista de espera por médico: o paciente aceita qualquer slot contido em [window_start, window_end)
+CREATE TABLE IF NOT EXISTS waitlist_entries (
+  id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+  doctor_id UUID NOT NULL REFERENCES doctors(id) ON DELETE CASCADE,
+  patient_id UUID NOT NULL REFERENCES patients(id) ON DELETE CASCADE,
+  window_start TIMESTAMP WITH TIME ZONE NOT NULL,
+  window_end TIMESTAMP WITH TIME ZONE NOT NULL,
+  status VARCHAR(32) NOT NULL DEFAULT 'waiting',
+  appointment_id UUID REFERENCES appointments(id) ON DELETE SET NULL,
+  created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+  CONSTRAINT waitlist_window_valid CHECK (window_start < window_end)
+);
+
+-- Carga das entradas pendentes na inicialização (o casamento com slots é feito em memória)
+CREATE INDEX IF NOT EXISTS idx_waitlist_entries_waiting ON waitlist_entries(doctor_id, created_at) WHERE status = 'waiting';
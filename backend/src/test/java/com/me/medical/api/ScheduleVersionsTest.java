@@ -0,0 +1,43 @@
+package com.me.medical.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.me.medical.application.dto.SlotEvent;
+
+/**
+ * Testes das versões de agenda usadas como ETag da listagem de slots.
+ */
+class ScheduleVersionsTest {
+
+    @Test
+    void slotEvents_bumpOnlyTheirDoctor() {
+        var versions = new ScheduleVersions();
+        var doctorId = UUID.randomUUID();
+        var otherId = UUID.randomUUID();
+
+        assertEquals(0, versions.current(doctorId));
+        versions.onSlotEvent(SlotEvent.deleted(doctorId, UUID.randomUUID()));
+        versions.onSlotEvent(SlotEvent.booked(doctorId, UUID.randomUUID(), null, null));
+
+        assertEquals(2, versions.current(doctorId));
+        assertEquals(0, versions.current(otherId));
+    }
+
+    @Test
+    void etag_isStrongAndDistinctAcrossVariantsAndProcesses() {
+        var versions = new ScheduleVersions();
+
+        var etag = versions.etag(3, "available");
+        assertEquals('"', etag.charAt(0));
+        assertEquals(etag, versions.etag(3, "available"));
+        assertNotEquals(etag, versions.etag(3, "all"));
+        assertNotEquals(etag, versions.etag(4, "available"));
+        // outra instância/restart: mesma versão numérica, ETag diferente
+        assertNotEquals(etag, new ScheduleVersions().etag(3, "available"));
+    }
+}
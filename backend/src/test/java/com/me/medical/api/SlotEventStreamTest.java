@@ -0,0 +1,110 @@
+package com.me.medical.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.me.medical.application.dto.SlotEvent;
+import com.me.medical.config.SlotEventProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Testes do fan-out SSE: buffer por assinante, desconexão de clientes lentos e limites.
+ */
+class SlotEventStreamTest {
+    private SlotEventProperties properties;
+    private SlotEventStream stream;
+    private final UUID doctorId = UUID.randomUUID();
+
+    @BeforeEach
+    void setup() {
+        properties = new SlotEventProperties();
+        properties.setMaxSubscribers(3);
+        properties.setMaxSubscribersPerDoctor(2);
+        properties.setBufferSize(2);
+        stream = new SlotEventStream(new SimpleMeterRegistry(), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.destroy();
+    }
+
+    @Test
+    void stalledSubscriber_doesNotDelayOthers_andIsDisconnectedWhenItsBufferOverflows() throws Exception {
+        var release = new CountDownLatch(1);
+        var stalled = new RecordingEmitter(release);
+        var healthy = new RecordingEmitter(null);
+        stream.subscribe(doctorId, stalled);
+        stream.subscribe(doctorId, healthy);
+
+        // 1 preso no send, 2 e 3 no buffer, o 4º estoura o buffer do cliente parado
+        for (int i = 0; i < 4; i++) {
+            stream.onSlotEvent(SlotEvent.deleted(doctorId, UUID.randomUUID()));
+            assertTrue(healthy.received.tryAcquire(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, stream.subscriberCount());
+
+        release.countDown();
+        assertTrue(stalled.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void subscribe_limitsSubscribersPerDoctorAndInTotal() {
+        stream.subscribe(doctorId, new SseEmitter());
+        stream.subscribe(doctorId, new SseEmitter());
+
+        var perDoctor = assertThrows(ResponseStatusException.class,
+            () -> stream.subscribe(doctorId, new SseEmitter()));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, perDoctor.getStatusCode());
+
+        stream.subscribe(UUID.randomUUID(), new SseEmitter());
+        var total = assertThrows(ResponseStatusException.class,
+            () -> stream.subscribe(UUID.randomUUID(), new SseEmitter()));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, total.getStatusCode());
+        assertEquals(3, stream.subscriberCount());
+    }
+
+    /** Conta os envios; com {@code release} definido, o primeiro envio fica preso até a liberação. */
+    private static final class RecordingEmitter extends SseEmitter {
+        final Semaphore received = new Semaphore(0);
+        final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            received.release();
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+            super.complete();
+        }
+    }
+}
@@ -16,6 +16,7 @@ import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.me.medical.config.BookingProperties;
 import com.me.medical.infra.AppointmentRepository;
 import com.me.medical.infra.DoctorRepository;
 import com.me.medical.infra.JpaAppointmentEntity;
@@ -28,6 +29,8 @@ import com.me.medical.infra.SlotRepository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.LockModeType;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * Testes de concorrência para AppointmentService.
  * 
@@ -53,7 +56,8 @@ class AppointmentServiceConcurrencyTest {
         patientRepository = mock(PatientRepository.class);
 
         service = new AppointmentServiceImpl(appointmentRepository, entityManager, slotRepository, 
-                doctorRepository, patientRepository);
+                doctorRepository, patientRepository, null, new BookingProperties(),
+                new ServiceMetrics(new SimpleMeterRegistry()), new SlotHoldTable(new SimpleMeterRegistry(), new BookingProperties()), event -> { });
     }
 
     @Test
@@ -96,10 +100,10 @@ class AppointmentServiceConcurrencyTest {
         when(patientRepository.findById(patientId1)).thenReturn(Optional.of(patient1));
         when(patientRepository.findById(patientId2)).thenReturn(Optional.of(patient2));
         when(slotRepository.save(any(JpaSlotEntity.class))).thenAnswer(i -> i.getArgument(0));
-        when(appointmentRepository.save(any(JpaAppointmentEntity.class))).thenAnswer(i -> i.getArgument(0));
 
         // Act: executar duas tentativas sequenciais para simular concorrência
-        // (em testes unitários com mocks, execução real concorrente é difícil de controlar)
+        // (em testes unitários com mocks, execução real concorrente é difícil de controlar;
+        // a contenção com threads reais fica no BookingContentionHarnessTest, perfil "harness")
         Exception result1 = null;
         Exception result2 = null;
 
@@ -2,19 +2,32 @@ package com.me.medical.application.impl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
 
 import com.me.medical.application.dto.AppointmentDto;
+import com.me.medical.application.dto.CreateAppointmentRequest;
+import com.me.medical.application.dto.SlotEvent;
+import com.me.medical.config.BookingProperties;
+import com.me.medical.infra.AppointmentBatchWriter;
 import com.me.medical.infra.AppointmentRepository;
 import com.me.medical.infra.JpaAppointmentEntity;
 import com.me.medical.infra.JpaDoctorEntity;
@@ -24,6 +37,7 @@ import com.me.medical.infra.DoctorRepository;
 import com.me.medical.infra.PatientRepository;
 import com.me.medical.infra.SlotRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.LockModeType;
 
@@ -33,6 +47,10 @@ class AppointmentServiceCreateTest {
     private SlotRepository slotRepository;
     private DoctorRepository doctorRepository;
     private PatientRepository patientRepository;
+    private AppointmentBatchWriter appointmentBatchWriter;
+    private SimpleMeterRegistry meterRegistry;
+    private SlotHoldTable holdTable;
+    private List<Object> publishedEvents;
     private AppointmentServiceImpl service;
 
     @BeforeEach
@@ -42,9 +60,13 @@ class AppointmentServiceCreateTest {
         slotRepository = mock(SlotRepository.class);
         doctorRepository = mock(DoctorRepository.class);
         patientRepository = mock(PatientRepository.class);
+        appointmentBatchWriter = mock(AppointmentBatchWriter.class);
+        meterRegistry = new SimpleMeterRegistry();
+        holdTable = new SlotHoldTable(meterRegistry, new BookingProperties());
+        publishedEvents = new ArrayList<>();
 
         service = new AppointmentServiceImpl(appointmentRepository, entityManager, slotRepository, doctorRepository,
-                patientRepository);
+                patientRepository, appointmentBatchWriter, new BookingProperties(), new ServiceMetrics(meterRegistry), holdTable, publishedEvents::add);
     }
 
     @Test
@@ -68,7 +90,6 @@ class AppointmentServiceCreateTest {
         patient.setId(patientId);
         when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
         when(slotRepository.save(any(JpaSlotEntity.class))).thenAnswer(i -> i.getArgument(0));
-        when(appointmentRepository.save(any(JpaAppointmentEntity.class))).thenAnswer(i -> i.getArgument(0));
 
         AppointmentDto dto = service.createAppointment(doctorId, slotId, patientId);
 
@@ -106,4 +127,346 @@ class AppointmentServiceCreateTest {
 
         assertThrows(IllegalStateException.class, () -> service.createAppointment(doctorId, slotId, patientId));
     }
+
+    @Test
+    void createAppointment_recordsOutcomeAndLockWait() {
+        var doctorId = UUID.randomUUID();
+        var slotId = UUID.randomUUID();
+
+        var slot = new JpaSlotEntity();
+        slot.setId(slotId);
+        var doc = new JpaDoctorEntity();
+        doc.setId(doctorId);
+        slot.setDoctor(doc);
+        slot.setStatus("booked");
+
+        when(entityManager.find(JpaSlotEntity.class, slotId, LockModeType.PESSIMISTIC_WRITE)).thenReturn(slot);
+
+        assertThrows(IllegalStateException.class, () -> service.createAppointment(doctorId, slotId, UUID.randomUUID()));
+
+        assertEquals(1.0, meterRegistry.get("medical.operation.outcome")
+            .tags("operation", "createAppointment", "outcome", "not_available").counter().count());
+        assertEquals(1L, meterRegistry.get("medical.operation.duration")
+            .tag("operation", "createAppointment").timer().count());
+        assertEquals(1L, meterRegistry.get("booking.lock.wait").tag("strategy", "pessimistic").timer().count());
+    }
+
+    @Test
+    void holdSlot_blocksOtherPatientsWithoutLock_andConfirmBooks() {
+        var doctorId = UUID.randomUUID();
+        var slotId = UUID.randomUUID();
+        var holderId = UUID.randomUUID();
+        var otherId = UUID.randomUUID();
+
+        var slot = new JpaSlotEntity();
+        slot.setId(slotId);
+        var doc = new JpaDoctorEntity();
+        doc.setId(doctorId);
+        slot.setDoctor(doc);
+        slot.setStatus("available");
+        when(slotRepository.findById(slotId)).thenReturn(Optional.of(slot));
+
+        var hold = service.holdSlot(doctorId, slotId, holderId);
+        assertEquals(holderId, hold.getPatientId());
+        verify(entityManager, never()).find(any(), any(), any(LockModeType.class));
+
+        // outro paciente: hold e reserva direta são rejeitados sem lock no slot
+        assertThrows(IllegalStateException.class, () -> service.holdSlot(doctorId, slotId, otherId));
+        assertThrows(IllegalStateException.class, () -> service.createAppointment(doctorId, slotId, otherId));
+        assertThrows(IllegalStateException.class, () -> service.confirmHold(slotId, otherId));
+        verify(entityManager, never()).find(any(), any(), any(LockModeType.class));
+
+        when(entityManager.find(JpaSlotEntity.class, slotId, LockModeType.PESSIMISTIC_WRITE)).thenReturn(slot);
+        when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(doc));
+        var patient = new JpaPatientEntity();
+        patient.setId(holderId);
+        when(patientRepository.findById(holderId)).thenReturn(Optional.of(patient));
+
+        var created = service.confirmHold(slotId, holderId);
+
+        assertEquals(holderId, created.getPatientId());
+        assertEquals("booked", slot.getStatus());
+        assertTrue(holdTable.find(slotId).isEmpty());
+    }
+
+    @Test
+    void cancelAppointment_releasesSlotAndPublishesEvent() {
+        var doctorId = UUID.randomUUID();
+        var patientId = UUID.randomUUID();
+        var doc = new JpaDoctorEntity();
+        doc.setId(doctorId);
+        var slot = new JpaSlotEntity();
+        slot.setId(UUID.randomUUID());
+        slot.setDoctor(doc);
+        slot.setStatus("booked");
+        slot.setStartTime(OffsetDateTime.of(2025, 9, 2, 10, 0, 0, 0, ZoneOffset.UTC));
+        slot.setEndTime(slot.getStartTime().plusMinutes(30));
+        var patient = new JpaPatientEntity();
+        patient.setId(patientId);
+        var appointment = new JpaAppointmentEntity();
+        appointment.setId(UUID.randomUUID());
+        appointment.setSlot(slot);
+        appointment.setDoctor(doc);
+        appointment.setPatient(patient);
+        appointment.setStatus("confirmed");
+
+        when(entityManager.find(JpaAppointmentEntity.class, appointment.getId(), LockModeType.PESSIMISTIC_WRITE))
+                .thenReturn(appointment);
+        when(entityManager.find(JpaSlotEntity.class, slot.getId(), LockModeType.PESSIMISTIC_WRITE)).thenReturn(slot);
+        when(appointmentRepository.save(any(JpaAppointmentEntity.class))).thenAnswer(i -> i.getArgument(0));
+
+        assertThrows(SecurityException.class, () -> service.cancelAppointment(appointment.getId(), UUID.randomUUID()));
+
+        var cancelled = service.cancelAppointment(appointment.getId(), patientId);
+
+        assertEquals("cancelled", cancelled.getStatus());
+        assertEquals("available", slot.getStatus());
+        assertEquals(List.of(SlotEvent.released(doctorId, slot.getId(), slot.getStartTime(), slot.getEndTime())),
+                publishedEvents);
+        assertThrows(IllegalStateException.class, () -> service.cancelAppointment(appointment.getId(), patientId));
+    }
+
+    @Test
+    void rescheduleAppointment_movesToTargetSlot_andReleasesOldOne() {
+        var patientId = UUID.randomUUID();
+        var patient = new JpaPatientEntity();
+        patient.setId(patientId);
+        var current = availableSlot(UUID.randomUUID());
+        current.setStatus("booked");
+        var target = availableSlot(UUID.randomUUID());
+        var taken = availableSlot(target.getDoctor().getId());
+        taken.setStatus("booked");
+        var appointment = new JpaAppointmentEntity();
+        appointment.setId(UUID.randomUUID());
+        appointment.setSlot(current);
+        appointment.setDoctor(current.getDoctor());
+        appointment.setPatient(patient);
+        appointment.setStatus("confirmed");
+
+        when(entityManager.find(JpaAppointmentEntity.class, appointment.getId(), LockModeType.PESSIMISTIC_WRITE))
+                .thenReturn(appointment);
+        when(slotRepository.lockAllOrdered(Set.of(current.getId(), taken.getId()))).thenReturn(List.of(current, taken));
+        when(slotRepository.lockAllOrdered(Set.of(current.getId(), target.getId()))).thenReturn(List.of(current, target));
+        when(appointmentRepository.save(any(JpaAppointmentEntity.class))).thenAnswer(i -> i.getArgument(0));
+
+        // novo slot ocupado: nada muda
+        assertThrows(IllegalStateException.class, () -> service.rescheduleAppointment(appointment.getId(),
+                taken.getDoctor().getId(), taken.getId(), patientId));
+        assertEquals("booked", current.getStatus());
+        assertEquals(current, appointment.getSlot());
+
+        var moved = service.rescheduleAppointment(appointment.getId(), target.getDoctor().getId(), target.getId(), patientId);
+
+        assertEquals(target.getId(), moved.getSlotId());
+        assertEquals(target.getDoctor().getId(), moved.getDoctorId());
+        assertEquals("available", current.getStatus());
+        assertEquals("booked", target.getStatus());
+        assertEquals(List.of(
+                SlotEvent.released(current.getDoctor().getId(), current.getId(), current.getStartTime(), current.getEndTime()),
+                SlotEvent.booked(target.getDoctor().getId(), target.getId(), target.getStartTime(), target.getEndTime())),
+                publishedEvents);
+    }
+
+    @Test
+    void createAppointments_locksAllInOneQuery_andBooksInBatch() {
+        var patientId = UUID.randomUUID();
+        var patient = new JpaPatientEntity();
+        patient.setId(patientId);
+        var first = availableSlot(UUID.randomUUID());
+        var second = availableSlot(UUID.randomUUID());
+        var items = List.of(item(second), item(first));
+
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
+        when(slotRepository.lockAllOrdered(Set.of(first.getId(), second.getId()))).thenReturn(List.of(first, second));
+        when(slotRepository.markBooked(Set.of(first.getId(), second.getId()))).thenReturn(2);
+
+        var created = service.createAppointments(items, patientId);
+
+        assertEquals(List.of(second.getId(), first.getId()), created.stream().map(AppointmentDto::getSlotId).toList());
+        verify(appointmentBatchWriter).insert(argThat(list -> list.size() == 2));
+        verify(entityManager, never()).find(any(), any(), any(LockModeType.class));
+        verify(appointmentRepository, never()).save(any());
+        assertEquals(2, publishedEvents.size());
+    }
+
+    @Test
+    void createAppointments_oneSlotUnavailable_booksNone() {
+        var patientId = UUID.randomUUID();
+        var free = availableSlot(UUID.randomUUID());
+        var taken = availableSlot(UUID.randomUUID());
+        taken.setStatus("booked");
+
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(new JpaPatientEntity()));
+        when(slotRepository.lockAllOrdered(any())).thenReturn(List.of(free, taken));
+
+        assertThrows(IllegalStateException.class,
+                () -> service.createAppointments(List.of(item(free), item(taken)), patientId));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.createAppointments(List.of(item(free), item(free)), patientId));
+        verify(slotRepository, never()).markBooked(any());
+        verify(appointmentBatchWriter, never()).insert(any());
+        assertTrue(publishedEvents.isEmpty());
+    }
+
+    private static JpaSlotEntity availableSlot(UUID doctorId) {
+        var doc = new JpaDoctorEntity();
+        doc.setId(doctorId);
+        var slot = new JpaSlotEntity();
+        slot.setId(UUID.randomUUID());
+        slot.setDoctor(doc);
+        slot.setStatus("available");
+        slot.setStartTime(OffsetDateTime.now().plusDays(1));
+        slot.setEndTime(slot.getStartTime().plusMinutes(30));
+        return slot;
+    }
+
+    private static CreateAppointmentRequest item(JpaSlotEntity slot) {
+        var item = new CreateAppointmentRequest();
+        item.setDoctorId(slot.getDoctor().getId());
+        item.setSlotId(slot.getId());
+        return item;
+    }
+
+    @Test
+    void bookNextAvailable_skipsHeldSlot_andBooksNextOne() {
+        var doctorId = UUID.randomUUID();
+        var patientId = UUID.randomUUID();
+        var doc = new JpaDoctorEntity();
+        doc.setId(doctorId);
+        var start = OffsetDateTime.now().plusDays(1);
+        var held = new JpaSlotEntity();
+        held.setId(UUID.randomUUID());
+        held.setDoctor(doc);
+        held.setStatus("available");
+        held.setStartTime(start);
+        held.setEndTime(start.plusMinutes(30));
+        var free = new JpaSlotEntity();
+        free.setId(UUID.randomUUID());
+        free.setDoctor(doc);
+        free.setStatus("available");
+        free.setStartTime(start.plusMinutes(30));
+        free.setEndTime(start.plusMinutes(60));
+        var patient = new JpaPatientEntity();
+        patient.setId(patientId);
+        holdTable.acquire(held.getId(), doctorId, UUID.randomUUID(), Duration.ofMinutes(5));
+
+        var to = start.plusDays(1);
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
+        when(slotRepository.lockNextAvailable(any(), any(), any(), any(), any())).thenReturn(List.of(held))
+            .thenReturn(List.of(free));
+
+        var created = service.bookNextAvailable(doctorId, null, start, to, patientId);
+
+        assertEquals(free.getId(), created.getSlotId());
+        assertEquals("booked", free.getStatus());
+        assertEquals("available", held.getStatus());
+        // a segunda busca continua depois do slot retido
+        verify(slotRepository).lockNextAvailable(doctorId, held.getStartTime(), held.getId(), to, PageRequest.ofSize(1));
+        assertEquals(List.of(SlotEvent.booked(doctorId, free.getId(), free.getStartTime(), free.getEndTime())),
+                publishedEvents);
+        verify(entityManager, never()).find(any(), any(), any(LockModeType.class));
+    }
+
+    @Test
+    void bookNextAvailable_validatesRequest_andReportsEmptyWindow() {
+        var patientId = UUID.randomUUID();
+        var from = OffsetDateTime.now().plusDays(1);
+        var to = from.plusHours(4);
+
+        assertThrows(IllegalArgumentException.class, () -> service.bookNextAvailable(null, null, from, to, patientId));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.bookNextAvailable(UUID.randomUUID(), "Cardiologia", from, to, patientId));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.bookNextAvailable(null, "Cardiologia", to, from, patientId));
+
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(new JpaPatientEntity()));
+        when(slotRepository.lockNextAvailableBySpecialty(any(), any(), any(), any(), any())).thenReturn(List.of());
+
+        assertThrows(IllegalStateException.class, () -> service.bookNextAvailable(null, "Cardiologia", from, to, patientId));
+        verify(appointmentRepository, never()).save(any());
+    }
+
+    @Test
+    void createWithConditionalUpdate_winner_booksWithoutLock() {
+        var doctorId = UUID.randomUUID();
+        var slotId = UUID.randomUUID();
+        var patientId = UUID.randomUUID();
+
+        var doc = new JpaDoctorEntity();
+        doc.setId(doctorId);
+        var slot = new JpaSlotEntity();
+        slot.setId(slotId);
+        slot.setDoctor(doc);
+        slot.setStatus("booked");
+        var patient = new JpaPatientEntity();
+        patient.setId(patientId);
+
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
+        when(slotRepository.claimIfAvailable(slotId, doctorId)).thenReturn(1);
+        when(slotRepository.findWithDoctorById(slotId)).thenReturn(Optional.of(slot));
+
+        AppointmentDto dto = service.createWithConditionalUpdate(doctorId, slotId, patientId);
+
+        assertEquals(slotId, dto.getSlotId());
+        assertEquals(doctorId, dto.getDoctorId());
+        assertEquals("confirmed", dto.getStatus());
+        verify(entityManager, never()).find(JpaSlotEntity.class, slotId, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    @Test
+    void createWithConditionalUpdate_loser_throwsConflict() {
+        var doctorId = UUID.randomUUID();
+        var slotId = UUID.randomUUID();
+        var patientId = UUID.randomUUID();
+
+        var doc = new JpaDoctorEntity();
+        doc.setId(doctorId);
+        var slot = new JpaSlotEntity();
+        slot.setId(slotId);
+        slot.setDoctor(doc);
+        slot.setStatus("booked");
+
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(new JpaPatientEntity()));
+        when(slotRepository.claimIfAvailable(slotId, doctorId)).thenReturn(0);
+        when(slotRepository.findById(slotId)).thenReturn(Optional.of(slot));
+
+        assertThrows(IllegalStateException.class, () -> service.createWithConditionalUpdate(doctorId, slotId, patientId));
+        verify(appointmentRepository, never()).save(any());
+    }
+
+    @Test
+    void createWithConditionalUpdate_unknownSlot_throwsNotFound() {
+        var doctorId = UUID.randomUUID();
+        var slotId = UUID.randomUUID();
+        var patientId = UUID.randomUUID();
+
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(new JpaPatientEntity()));
+        when(slotRepository.claimIfAvailable(slotId, doctorId)).thenReturn(0);
+        when(slotRepository.findById(slotId)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> service.createWithConditionalUpdate(doctorId, slotId, patientId));
+    }
+
+    @Test
+    void tryCreateAppointment_loser_returnsEmptyWithoutThrowing() {
+        var doctorId = UUID.randomUUID();
+        var slotId = UUID.randomUUID();
+        var patientId = UUID.randomUUID();
+
+        var doc = new JpaDoctorEntity();
+        doc.setId(doctorId);
+        var slot = new JpaSlotEntity();
+        slot.setId(slotId);
+        slot.setDoctor(doc);
+        slot.setStatus("booked");
+
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(new JpaPatientEntity()));
+        when(slotRepository.claimIfAvailable(slotId, doctorId)).thenReturn(0);
+        when(slotRepository.findById(slotId)).thenReturn(Optional.of(slot));
+
+        // sem exceção a transação do lote não é marcada para rollback
+        assertTrue(service.tryCreateAppointment(doctorId, slotId, patientId).isEmpty());
+        verify(entityManager, never()).persist(any());
+        assertTrue(publishedEvents.isEmpty());
+    }
 }
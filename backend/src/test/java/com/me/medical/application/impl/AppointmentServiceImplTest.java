@@ -6,22 +6,29 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import org.springframework.data.domain.PageRequest;
+
+import com.me.medical.application.dto.AgendaEntryDto;
 import com.me.medical.application.dto.AppointmentDto;
+import com.me.medical.config.BookingProperties;
+import com.me.medical.infra.AgendaView;
 import com.me.medical.infra.AppointmentRepository;
-import com.me.medical.infra.JpaAppointmentEntity;
-import com.me.medical.infra.JpaDoctorEntity;
-import com.me.medical.infra.JpaPatientEntity;
-import com.me.medical.infra.JpaSlotEntity;
+import com.me.medical.infra.AppointmentView;
 
 import jakarta.persistence.EntityManager;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 class AppointmentServiceImplTest {
     private AppointmentRepository appointmentRepository;
     private EntityManager entityManager;
@@ -31,44 +38,79 @@ class AppointmentServiceImplTest {
     void setup() {
         appointmentRepository = mock(AppointmentRepository.class);
         entityManager = mock(EntityManager.class);
-        service = new AppointmentServiceImpl(appointmentRepository, entityManager, null, null, null);
+        service = new AppointmentServiceImpl(appointmentRepository, entityManager, null, null, null, null,
+                new BookingProperties(), new ServiceMetrics(new SimpleMeterRegistry()),
+                new SlotHoldTable(new SimpleMeterRegistry(), new BookingProperties()), event -> { });
     }
 
     @Test
-    void listByPatient_mapsEntitiesToDto() {
+    void listByPatient_mapsProjectionToDto() {
         var patientId = UUID.randomUUID();
+        var start = OffsetDateTime.now().plusDays(1);
 
-        var slot = new JpaSlotEntity();
-        slot.setId(UUID.randomUUID());
-
-        var doctor = new JpaDoctorEntity();
-        doctor.setId(UUID.randomUUID());
-
-        var patient = new JpaPatientEntity();
-        patient.setId(patientId);
-
-        var appt = new JpaAppointmentEntity();
-        appt.setId(UUID.randomUUID());
-        appt.setSlot(slot);
-        appt.setDoctor(doctor);
-        appt.setPatient(patient);
-        appt.setStatus("confirmed");
-        appt.setCreatedAt(OffsetDateTime.now());
+        var view = new AppointmentView(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), patientId,
+                "confirmed", OffsetDateTime.now(), "Dr. Example", "Cardiologia", start, start.plusMinutes(30));
 
-        when(appointmentRepository.findByPatientId(patientId)).thenReturn(List.of(appt));
+        when(appointmentRepository.findViewsByPatientId(eq(patientId), any())).thenReturn(List.of(view));
 
-        List<AppointmentDto> list = service.listByPatient(patientId);
+        List<AppointmentDto> list = service.listByPatient(patientId, 0, 20);
 
         assertNotNull(list);
         assertEquals(1, list.size());
         var dto = list.get(0);
-        assertEquals(appt.getId(), dto.getId());
-        assertEquals(slot.getId(), dto.getSlotId());
-        assertEquals(doctor.getId(), dto.getDoctorId());
-        assertEquals(patient.getId(), dto.getPatientId());
-        assertEquals(appt.getStatus(), dto.getStatus());
+        assertEquals(view.id(), dto.getId());
+        assertEquals(view.slotId(), dto.getSlotId());
+        assertEquals(view.doctorId(), dto.getDoctorId());
+        assertEquals(patientId, dto.getPatientId());
+        assertEquals("confirmed", dto.getStatus());
+        assertEquals("Dr. Example", dto.getDoctorName());
+        assertEquals("Cardiologia", dto.getDoctorSpecialty());
+        assertEquals(start, dto.getStart());
         assertNotNull(dto.getCreatedAt());
 
-        verify(appointmentRepository, times(1)).findByPatientId(patientId);
+        // leitura via projeção paginada, sem materializar entidades
+        verify(appointmentRepository, times(1)).findViewsByPatientId(patientId, PageRequest.of(0, 20));
+    }
+
+    @Test
+    void listByPatient_clampsPageSize() {
+        var patientId = UUID.randomUUID();
+        when(appointmentRepository.findViewsByPatientId(eq(patientId), any())).thenReturn(List.of());
+
+        service.listByPatient(patientId, -1, 10_000);
+
+        verify(appointmentRepository).findViewsByPatientId(patientId,
+                PageRequest.of(0, AppointmentServiceImpl.MAX_PAGE_SIZE));
+    }
+
+    @Test
+    void listByDoctor_returnsFlatPageWithCursor_andResumesAfterIt() {
+        var doctorId = UUID.randomUUID();
+        var from = OffsetDateTime.parse("2025-09-02T00:00:00Z");
+        var to = from.plusDays(1);
+        var first = agendaRow(from.plusHours(9), "Ana");
+        var second = agendaRow(from.plusHours(10), "Bruno");
+        var extra = agendaRow(from.plusHours(11), "Carla");
+        when(appointmentRepository.findAgendaPage(eq(doctorId), eq(from), eq(SlotCursor.MIN_ID), eq(to), any()))
+                .thenReturn(List.of(first, second, extra));
+
+        var page = service.listByDoctor(doctorId, from, to, null, 2);
+
+        assertEquals(List.of("Ana", "Bruno"), page.getItems().stream().map(AgendaEntryDto::getPatientName).toList());
+        assertNotNull(page.getNextCursor());
+        // uma linha a mais decide se há próxima página
+        verify(appointmentRepository).findAgendaPage(doctorId, from, SlotCursor.MIN_ID, to, PageRequest.ofSize(3));
+
+        when(appointmentRepository.findAgendaPage(eq(doctorId), eq(second.start()), eq(second.slotId()), eq(to), any()))
+                .thenReturn(List.of(extra));
+        var next = service.listByDoctor(doctorId, null, to, page.getNextCursor(), 2);
+
+        assertEquals(1, next.getItems().size());
+        assertNull(next.getNextCursor());
+    }
+
+    private static AgendaView agendaRow(OffsetDateTime start, String patientName) {
+        return new AgendaView(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), patientName, "confirmed",
+                start, start.plusMinutes(30), start.minusDays(3));
     }
 }
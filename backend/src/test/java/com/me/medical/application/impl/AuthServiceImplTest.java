@@ -91,7 +91,7 @@ class AuthServiceImplTest {
 
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
         when(passwordEncoder.matches(password, hashedPassword)).thenReturn(true);
-        when(tokenProvider.createToken(userId.toString(), "ROLE_DOCTOR")).thenReturn(token);
+        when(tokenProvider.createToken(userId.toString(), "ROLE_DOCTOR", doctorId.toString())).thenReturn(token);
         when(doctorRepository.findByUserId(userId)).thenReturn(Collections.singletonList(doctor));
 
         // Act
@@ -112,7 +112,7 @@ class AuthServiceImplTest {
         // Verify interactions
         verify(userRepository).findByEmail(email);
         verify(passwordEncoder).matches(password, hashedPassword);
-        verify(tokenProvider).createToken(userId.toString(), "ROLE_DOCTOR");
+        verify(tokenProvider).createToken(userId.toString(), "ROLE_DOCTOR", doctorId.toString());
         verify(doctorRepository).findByUserId(userId);
     }
 
@@ -143,7 +143,7 @@ class AuthServiceImplTest {
 
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
         when(passwordEncoder.matches(password, hashedPassword)).thenReturn(true);
-        when(tokenProvider.createToken(userId.toString(), "ROLE_PATIENT")).thenReturn(token);
+        when(tokenProvider.createToken(userId.toString(), "ROLE_PATIENT", patientId.toString())).thenReturn(token);
         when(doctorRepository.findByUserId(userId)).thenReturn(Collections.emptyList());
         when(patientRepository.findByUserId(userId)).thenReturn(Collections.singletonList(patient));
 
@@ -200,7 +200,7 @@ class AuthServiceImplTest {
 
         verify(passwordEncoder).matches(wrongPassword, correctHashedPassword);
         // Não deve tentar gerar token se senha está errada
-        verify(tokenProvider, org.mockito.Mockito.never()).createToken(anyString(), anyString());
+        verify(tokenProvider, org.mockito.Mockito.never()).createToken(anyString(), anyString(), any());
     }
 
     @Test
@@ -224,7 +224,7 @@ class AuthServiceImplTest {
 
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
         when(passwordEncoder.matches(password, hashedPassword)).thenReturn(true);
-        when(tokenProvider.createToken(userId.toString(), "ROLE_PATIENT")).thenReturn(token);
+        when(tokenProvider.createToken(userId.toString(), "ROLE_PATIENT", null)).thenReturn(token);
         when(doctorRepository.findByUserId(userId)).thenReturn(Collections.emptyList());
         when(patientRepository.findByUserId(userId)).thenReturn(Collections.emptyList());
 
@@ -255,14 +255,61 @@ class AuthServiceImplTest {
 
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
         when(passwordEncoder.matches(password, "hash")).thenReturn(true);
-        when(tokenProvider.createToken(userId.toString(), "ROLE_DOCTOR")).thenReturn("token");
+        when(tokenProvider.createToken(userId.toString(), "ROLE_DOCTOR", null)).thenReturn("token");
         when(doctorRepository.findByUserId(userId)).thenReturn(Collections.emptyList());
 
         // Act
         authService.login(email, password);
 
         // Assert
-        verify(tokenProvider).createToken(userId.toString(), "ROLE_DOCTOR");
+        verify(tokenProvider).createToken(userId.toString(), "ROLE_DOCTOR", null);
+    }
+
+    @Test
+    void login_hashWithOutdatedCost_rehashesPassword() {
+        // Arrange: hash gerado com custo diferente do configurado
+        var email = "patient@example.com";
+        var password = "patientpass";
+        var userId = UUID.randomUUID();
+
+        var role = new JpaRoleEntity();
+        role.setName("ROLE_PATIENT");
+
+        var user = new JpaUserEntity();
+        user.setId(userId);
+        user.setEmail(email);
+        user.setPasswordHash("$2a$08$oldhash");
+        user.setRole(role);
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches(password, "$2a$08$oldhash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("$2a$08$oldhash")).thenReturn(true);
+        when(passwordEncoder.encode(password)).thenReturn("$2a$12$newhash");
+        when(patientRepository.findByUserId(userId)).thenReturn(Collections.emptyList());
+
+        // Act
+        authService.login(email, password);
+
+        // Assert
+        assertEquals("$2a$12$newhash", user.getPasswordHash());
+        verify(userRepository).save(user);
+    }
+
+    @Test
+    void login_hashWithCurrentCost_doesNotRehash() {
+        var email = "patient@example.com";
+        var user = new JpaUserEntity();
+        user.setId(UUID.randomUUID());
+        user.setEmail(email);
+        user.setPasswordHash("hash");
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("pass", "hash")).thenReturn(true);
+
+        authService.login(email, "pass");
+
+        verify(passwordEncoder, org.mockito.Mockito.never()).encode(anyString());
+        verify(userRepository, org.mockito.Mockito.never()).save(any());
     }
 
     @Test
@@ -318,7 +365,7 @@ class AuthServiceImplTest {
             return user;
         });
         when(doctorRepository.save(any(JpaDoctorEntity.class))).thenAnswer(i -> i.getArgument(0));
-        when(tokenProvider.createToken(anyString(), anyString())).thenReturn(token);
+        when(tokenProvider.createToken(anyString(), anyString(), anyString())).thenReturn(token);
 
         // Act
         Map<String, Object> result = authService.register(name, email, password, role, specialty, phone);
@@ -334,7 +381,11 @@ class AuthServiceImplTest {
         assertEquals(email, userInfo.get("email"));
 
         verify(userRepository).save(any(JpaUserEntity.class));
-        verify(doctorRepository).save(any(JpaDoctorEntity.class));
+        var doctorCaptor = org.mockito.ArgumentCaptor.forClass(JpaDoctorEntity.class);
+        verify(doctorRepository).save(doctorCaptor.capture());
+        // o token já carrega o id do perfil recém-criado
+        verify(tokenProvider).createToken(anyString(), org.mockito.ArgumentMatchers.eq("ROLE_DOCTOR"),
+                org.mockito.ArgumentMatchers.eq(doctorCaptor.getValue().getId().toString()));
     }
 
     @Test
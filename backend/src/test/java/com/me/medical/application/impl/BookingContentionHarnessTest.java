@@ -0,0 +1,311 @@
+package com.me.medical.application.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.me.medical.application.AppointmentService;
+import com.me.medical.application.dto.CreateAppointmentRequest;
+import com.me.medical.config.BookingProperties;
+import com.me.medical.infra.AppointmentRepository;
+import com.me.medical.infra.DoctorRepository;
+import com.me.medical.infra.JpaDoctorEntity;
+import com.me.medical.infra.JpaPatientEntity;
+import com.me.medical.infra.JpaSlotEntity;
+import com.me.medical.infra.PatientRepository;
+import com.me.medical.infra.SlotRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Harness de contenção de reservas: N threads reais contra o {@link AppointmentServiceImpl}
+ * (com proxy transacional) e um H2 em memória no modo PostgreSQL, sem serviços externos.
+ *
+ * Cenários, para cada {@link BookingProperties.Strategy}:
+ * - mesmo slot: a cada rodada todas as threads disputam um único slot; exige exatamente um vencedor
+ * - slots distintos: cada thread reserva seus próprios slots; todas as reservas devem passar
+ * - próximo disponível: todas as threads pedem o próximo slot livre do médico (SKIP LOCKED);
+ *   todas as reservas devem passar, cada uma num slot diferente
+ * - lotes sobrepostos: threads reservam pares de slots compartilhados em ordens opostas; sem
+ *   deadlock, cada slot termina com exatamente um agendamento
+ *
+ * Reporta vazão, latência p50/p99 e o tempo médio/máximo em {@code booking.lock.wait}.
+ * Fica fora do {@code mvn test} padrão (tag "harness"); execução:
+ * {@code mvn -Pharness test -Dharness.threads=32 -Dharness.pool=10}.
+ */
+@Tag("harness")
+@SpringBootTest(properties = {
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    // o domínio JSONB permite criar a coluna metadata (columnDefinition = "jsonb") no H2
+    "spring.datasource.url=jdbc:h2:mem:harness;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000;"
+        + "INIT=CREATE DOMAIN IF NOT EXISTS JSONB AS JSON",
+    "spring.datasource.hikari.maximum-pool-size=${harness.pool:10}"
+})
+@ActiveProfiles("test")
+class BookingContentionHarnessTest {
+    private static final int THREADS = Integer.getInteger("harness.threads", 16);
+    private static final int ROUNDS = Integer.getInteger("harness.rounds", 50);
+    private static final int BOOKINGS_PER_THREAD = Integer.getInteger("harness.bookingsPerThread", 20);
+    private static final OffsetDateTime BASE = OffsetDateTime.of(2030, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final AtomicInteger SLOT_SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private BookingProperties bookingProperties;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private SlotRepository slotRepository;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private JpaDoctorEntity doctor;
+    private List<UUID> patientIds;
+
+    @BeforeEach
+    void setup() {
+        doctor = new JpaDoctorEntity();
+        doctor.setId(UUID.randomUUID());
+        doctor.setName("Dr. Harness");
+        doctor.setCreatedAt(OffsetDateTime.now());
+        doctorRepository.save(doctor);
+
+        patientIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            var patient = new JpaPatientEntity();
+            patient.setId(UUID.randomUUID());
+            patient.setName("Paciente " + i);
+            patient.setCreatedAt(OffsetDateTime.now());
+            patientIds.add(patientRepository.save(patient).getId());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookingProperties.Strategy.class)
+    void sameSlot_exactlyOneWinnerPerRound(BookingProperties.Strategy strategy) throws Exception {
+        bookingProperties.setStrategy(strategy);
+        var slots = createSlots(ROUNDS);
+        var winners = new AtomicIntegerArray(ROUNDS);
+        var barrier = new CyclicBarrier(THREADS);
+
+        var result = run(strategy.name(), lockTag(strategy), "same-slot", THREADS * ROUNDS, thread -> {
+            var latencies = new long[ROUNDS];
+            for (int round = 0; round < ROUNDS; round++) {
+                barrier.await();
+                long start = System.nanoTime();
+                try {
+                    appointmentService.createAppointment(doctor.getId(), slots.get(round), patientIds.get(thread));
+                    winners.incrementAndGet(round);
+                } catch (IllegalStateException e) {
+                    // perdedor esperado: slot já reservado
+                }
+                latencies[round] = System.nanoTime() - start;
+            }
+            return latencies;
+        });
+
+        for (int round = 0; round < ROUNDS; round++) {
+            assertEquals(1, winners.get(round), "winners in round " + round);
+        }
+        assertEquals(ROUNDS, countAppointments(slots), "appointments persisted");
+        result.print();
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookingProperties.Strategy.class)
+    void distinctSlots_allBookingsSucceed(BookingProperties.Strategy strategy) throws Exception {
+        bookingProperties.setStrategy(strategy);
+        var slots = createSlots(THREADS * BOOKINGS_PER_THREAD);
+
+        var result = run(strategy.name(), lockTag(strategy), "distinct-slots", THREADS * BOOKINGS_PER_THREAD, thread -> {
+            var latencies = new long[BOOKINGS_PER_THREAD];
+            for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                long start = System.nanoTime();
+                appointmentService.createAppointment(doctor.getId(), slots.get(thread * BOOKINGS_PER_THREAD + i),
+                    patientIds.get(thread));
+                latencies[i] = System.nanoTime() - start;
+            }
+            return latencies;
+        });
+
+        assertEquals(slots.size(), countAppointments(slots), "appointments persisted");
+        result.print();
+    }
+
+    @Test
+    void nextAvailable_concurrentRequestsGetDistinctSlots() throws Exception {
+        var slots = createSlots(THREADS * BOOKINGS_PER_THREAD);
+        var windowEnd = BASE.plusMinutes(30L * SLOT_SEQUENCE.get());
+        var booked = ConcurrentHashMap.<UUID>newKeySet();
+
+        var result = run("SKIP_LOCKED", "skip_locked", "next-available", THREADS * BOOKINGS_PER_THREAD, thread -> {
+            var latencies = new long[BOOKINGS_PER_THREAD];
+            for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                long start = System.nanoTime();
+                var created = appointmentService.bookNextAvailable(doctor.getId(), null, BASE, windowEnd,
+                    patientIds.get(thread));
+                booked.add(created.getSlotId());
+                latencies[i] = System.nanoTime() - start;
+            }
+            return latencies;
+        });
+
+        assertEquals(slots.size(), booked.size(), "distinct slots booked");
+        assertEquals(slots.size(), countAppointments(slots), "appointments persisted");
+        result.print();
+    }
+
+    @Test
+    void overlappingBatches_neverDeadlock() throws Exception {
+        var slots = createSlots(ROUNDS + 1);
+        var barrier = new CyclicBarrier(THREADS);
+
+        var result = run("BATCH", "batch", "overlapping-batches", THREADS * ROUNDS, thread -> {
+            var latencies = new long[ROUNDS];
+            for (int round = 0; round < ROUNDS; round++) {
+                // metade das threads pede (a, b), a outra metade (b, a)
+                var a = item(slots.get(round));
+                var b = item(slots.get(round + 1));
+                var items = thread % 2 == 0 ? List.of(a, b) : List.of(b, a);
+                barrier.await();
+                long start = System.nanoTime();
+                try {
+                    appointmentService.createAppointments(items, patientIds.get(thread));
+                } catch (IllegalStateException e) {
+                    // perdedor esperado: algum slot do par já reservado
+                }
+                latencies[round] = System.nanoTime() - start;
+            }
+            return latencies;
+        });
+
+        assertEquals(countAppointments(slots), Set.copyOf(appointmentRepository.findAll().stream()
+            .filter(a -> slots.contains(a.getSlot().getId())).map(a -> a.getSlot().getId()).toList()).size(),
+            "one appointment per slot");
+        result.print();
+    }
+
+    private CreateAppointmentRequest item(UUID slotId) {
+        var item = new CreateAppointmentRequest();
+        item.setDoctorId(doctor.getId());
+        item.setSlotId(slotId);
+        return item;
+    }
+
+    private Result run(String label, String lockTag, String scenario, int operations, Worker worker)
+            throws Exception {
+        var before = lockWaitTimer(lockTag);
+        long lockCountBefore = before == null ? 0 : before.count();
+        double lockTotalBefore = before == null ? 0 : before.totalTime(TimeUnit.MILLISECONDS);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            long start = System.nanoTime();
+            var futures = new ArrayList<Future<long[]>>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> worker.run(thread)));
+            }
+            var latencies = new ArrayList<long[]>();
+            for (var f : futures) latencies.add(f.get(5, TimeUnit.MINUTES));
+            long elapsed = System.nanoTime() - start;
+
+            var lockWait = lockWaitTimer(lockTag);
+            long lockCount = lockWait.count() - lockCountBefore;
+            double lockTotal = lockWait.totalTime(TimeUnit.MILLISECONDS) - lockTotalBefore;
+            return new Result(label, scenario, operations, elapsed,
+                latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray(),
+                lockCount == 0 ? 0 : lockTotal / lockCount, lockWait.max(TimeUnit.MILLISECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static String lockTag(BookingProperties.Strategy strategy) {
+        return strategy == BookingProperties.Strategy.PESSIMISTIC ? "pessimistic" : "conditional_update";
+    }
+
+    /**
+     * Timer registrado sob demanda pelo {@link ServiceMetrics}; null antes da primeira reserva.
+     */
+    private Timer lockWaitTimer(String tag) {
+        return meterRegistry.find("booking.lock.wait").tag("strategy", tag).timer();
+    }
+
+    private List<UUID> createSlots(int count) {
+        var slots = new ArrayList<JpaSlotEntity>(count);
+        for (int i = 0; i < count; i++) {
+            var start = BASE.plusMinutes(30L * SLOT_SEQUENCE.getAndIncrement());
+            var slot = new JpaSlotEntity();
+            slot.setId(UUID.randomUUID());
+            slot.setDoctor(doctor);
+            slot.setStartTime(start);
+            slot.setEndTime(start.plusMinutes(30));
+            slot.setStatus("available");
+            slot.setCreatedAt(OffsetDateTime.now());
+            slots.add(slot);
+        }
+        return slotRepository.saveAll(slots).stream().map(JpaSlotEntity::getId).toList();
+    }
+
+    private long countAppointments(List<UUID> slotIds) {
+        var ids = Set.copyOf(slotIds);
+        return appointmentRepository.findAll().stream()
+            .filter(a -> ids.contains(a.getSlot().getId()))
+            .count();
+    }
+
+    @FunctionalInterface
+    private interface Worker {
+        long[] run(int thread) throws Exception;
+    }
+
+    private record Result(String label, String scenario, int operations, long elapsedNanos,
+                          long[] sortedLatencies, double lockWaitMeanMs, double lockWaitMaxMs) {
+        void print() {
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf(Locale.ROOT,
+                "[harness] %-18s %-14s threads=%d ops=%d throughput=%.1f/s p50=%.2fms p99=%.2fms "
+                    + "lockWaitMean=%.2fms lockWaitMax=%.2fms%n",
+                label, scenario, THREADS, operations, operations / seconds,
+                percentile(0.50), percentile(0.99), lockWaitMeanMs, lockWaitMaxMs);
+        }
+
+        private double percentile(double p) {
+            if (sortedLatencies.length == 0) return 0;
+            int i = (int) Math.ceil(p * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, i)] / 1e6;
+        }
+    }
+}
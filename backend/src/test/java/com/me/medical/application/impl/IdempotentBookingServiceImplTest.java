@@ -0,0 +1,147 @@
+package com.me.medical.application.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.me.medical.application.AppointmentService;
+import com.me.medical.application.IdempotencyKeyReuseException;
+import com.me.medical.application.dto.AppointmentDto;
+import com.me.medical.config.BookingProperties;
+import com.me.medical.infra.IdempotencyKeyRepository;
+import com.me.medical.infra.JpaIdempotencyKeyEntity;
+
+/**
+ * Testes da criação idempotente de agendamentos.
+ */
+class IdempotentBookingServiceImplTest {
+    private static final String KEY = "retry-123";
+
+    private AppointmentService appointmentService;
+    private IdempotencyKeyRepository repository;
+    private ObjectMapper objectMapper;
+    private IdempotentBookingServiceImpl service;
+    private UUID doctorId;
+    private UUID slotId;
+    private UUID patientId;
+
+    @BeforeEach
+    void setup() {
+        appointmentService = mock(AppointmentService.class);
+        repository = mock(IdempotencyKeyRepository.class);
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        service = new IdempotentBookingServiceImpl(appointmentService, repository, mock(PlatformTransactionManager.class),
+                new BookingProperties(), objectMapper);
+        doctorId = UUID.randomUUID();
+        slotId = UUID.randomUUID();
+        patientId = UUID.randomUUID();
+        when(repository.findById(any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void firstRequest_booksAndStoresResponse_retryReplaysFromCache() {
+        var dto = appointment();
+        when(appointmentService.createAppointment(doctorId, slotId, patientId)).thenReturn(dto);
+
+        var first = service.createAppointment(doctorId, slotId, patientId, KEY);
+        var retry = service.createAppointment(doctorId, slotId, patientId, KEY);
+
+        assertFalse(first.replayed());
+        assertEquals(201, first.status());
+        verify(repository).insert(eq(patientId), eq(KEY), eq(doctorId + ":" + slotId), eq(201), anyString(), any(), any());
+        assertTrue(retry.replayed());
+        assertEquals(dto.getId(), retry.body().getId());
+        verify(appointmentService, times(1)).createAppointment(any(), any(), any());
+    }
+
+    @Test
+    void storedRow_isReplayedWithoutTouchingSlot() throws Exception {
+        var dto = appointment();
+        when(repository.findById(new JpaIdempotencyKeyEntity.Key(patientId, KEY)))
+                .thenReturn(Optional.of(row(dto, doctorId + ":" + slotId)));
+
+        var result = service.createAppointment(doctorId, slotId, patientId, KEY);
+
+        assertTrue(result.replayed());
+        assertEquals(dto.getId(), result.body().getId());
+        verify(appointmentService, never()).createAppointment(any(), any(), any());
+    }
+
+    @Test
+    void sameKeyForOtherSlot_isRejected() throws Exception {
+        when(repository.findById(new JpaIdempotencyKeyEntity.Key(patientId, KEY)))
+                .thenReturn(Optional.of(row(appointment(), doctorId + ":" + UUID.randomUUID())));
+
+        assertThrows(IdempotencyKeyReuseException.class,
+                () -> service.createAppointment(doctorId, slotId, patientId, KEY));
+        verify(appointmentService, never()).createAppointment(any(), any(), any());
+    }
+
+    @Test
+    void concurrentDuplicate_losesSlotRace_thenReplaysWinnerResponse() throws Exception {
+        var dto = appointment();
+        when(appointmentService.createAppointment(doctorId, slotId, patientId))
+                .thenThrow(new IllegalStateException("slot not available"));
+        // primeira leitura: nada gravado; após perder a disputa, a resposta do vencedor já está na tabela
+        when(repository.findById(new JpaIdempotencyKeyEntity.Key(patientId, KEY)))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(row(dto, doctorId + ":" + slotId)));
+
+        var result = service.createAppointment(doctorId, slotId, patientId, KEY);
+
+        assertTrue(result.replayed());
+        assertEquals(dto.getId(), result.body().getId());
+        verify(repository, never()).insert(any(), any(), any(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void slotTakenByAnotherPatient_stillConflicts() {
+        when(appointmentService.createAppointment(doctorId, slotId, patientId))
+                .thenThrow(new IllegalStateException("slot not available"));
+
+        assertThrows(IllegalStateException.class, () -> service.createAppointment(doctorId, slotId, patientId, KEY));
+    }
+
+    private AppointmentDto appointment() {
+        var dto = new AppointmentDto();
+        dto.setId(UUID.randomUUID());
+        dto.setSlotId(slotId);
+        dto.setDoctorId(doctorId);
+        dto.setPatientId(patientId);
+        dto.setStatus("confirmed");
+        dto.setCreatedAt(OffsetDateTime.now());
+        return dto;
+    }
+
+    private JpaIdempotencyKeyEntity row(AppointmentDto dto, String fingerprint) throws Exception {
+        var row = new JpaIdempotencyKeyEntity();
+        row.setPatientId(patientId);
+        row.setIdempotencyKey(KEY);
+        row.setRequestFingerprint(fingerprint);
+        row.setStatusCode(201);
+        row.setResponseBody(objectMapper.writeValueAsString(dto));
+        row.setCreatedAt(OffsetDateTime.now());
+        row.setExpiresAt(OffsetDateTime.now().plusHours(1));
+        return row;
+    }
+}
@@ -0,0 +1,187 @@
+package com.me.medical.application.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.me.medical.application.AppointmentService;
+import com.me.medical.application.BookingQueueFullException;
+import com.me.medical.application.dto.AppointmentDto;
+import com.me.medical.application.dto.BookingTicketDto;
+import com.me.medical.config.BookingProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Testes do modo fila: lotes por transação, isolamento de falhas e fila cheia.
+ */
+class QueuedBookingServiceImplTest {
+    private AppointmentService appointmentService;
+    private BookingProperties properties;
+    private QueuedBookingServiceImpl service;
+    private UUID doctorId;
+
+    @BeforeEach
+    void setup() {
+        appointmentService = mock(AppointmentService.class);
+        properties = new BookingProperties();
+        properties.setQueueEnabled(true);
+        properties.setQueuePartitions(1);
+        doctorId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) service.destroy();
+    }
+
+    private QueuedBookingServiceImpl start() {
+        service = new QueuedBookingServiceImpl(appointmentService, mock(PlatformTransactionManager.class), properties,
+                new SimpleMeterRegistry());
+        return service;
+    }
+
+    @Test
+    void disabled_rejectsSubmitWithoutStartingWriters() {
+        properties.setQueueEnabled(false);
+        start();
+
+        assertFalse(service.isEnabled());
+        assertThrows(IllegalStateException.class, () -> service.submit(doctorId, UUID.randomUUID(), UUID.randomUUID()));
+    }
+
+    @Test
+    void submit_returnsQueuedTicket_andAwaitCompletesWithAppointment() throws Exception {
+        var slotId = UUID.randomUUID();
+        var patientId = UUID.randomUUID();
+        var appointment = new AppointmentDto();
+        appointment.setId(UUID.randomUUID());
+        when(appointmentService.tryCreateAppointment(doctorId, slotId, patientId)).thenReturn(Optional.of(appointment));
+        start();
+
+        var ticket = service.submit(doctorId, slotId, patientId);
+        assertEquals(BookingTicketDto.QUEUED, ticket.getStatus());
+
+        var result = service.await(ticket.getId(), patientId, Duration.ofSeconds(5)).get(5, TimeUnit.SECONDS);
+        assertEquals(BookingTicketDto.CONFIRMED, result.getStatus());
+        assertEquals(appointment.getId(), result.getAppointment().getId());
+        assertThrows(SecurityException.class, () -> service.await(ticket.getId(), UUID.randomUUID(), Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> service.await(UUID.randomUUID(), patientId, Duration.ZERO));
+    }
+
+    @Test
+    void purgeExpired_dropsTicketsCompletedBeforeTheTtl_withoutNewSubmissions() throws Exception {
+        var slotId = UUID.randomUUID();
+        var patientId = UUID.randomUUID();
+        when(appointmentService.tryCreateAppointment(doctorId, slotId, patientId)).thenReturn(Optional.of(new AppointmentDto()));
+        start();
+        var ticket = service.submit(doctorId, slotId, patientId);
+        service.await(ticket.getId(), patientId, Duration.ofSeconds(5)).get(5, TimeUnit.SECONDS);
+
+        service.purgeExpired(OffsetDateTime.now());
+        assertEquals(BookingTicketDto.CONFIRMED, service.await(ticket.getId(), patientId, Duration.ZERO).get().getStatus());
+
+        service.purgeExpired(OffsetDateTime.now().plus(properties.getTicketTtl()).plusSeconds(1));
+        assertThrows(IllegalArgumentException.class, () -> service.await(ticket.getId(), patientId, Duration.ZERO));
+    }
+
+    @Test
+    void process_slotAlreadyBooked_failsOnlyThatTicket_andConfirmsTheRestInOneTransaction() {
+        properties.setQueueEnabled(false);
+        var transactionManager = mock(PlatformTransactionManager.class);
+        service = new QueuedBookingServiceImpl(appointmentService, transactionManager, properties,
+                new SimpleMeterRegistry());
+        var first = ticket(UUID.randomUUID());
+        var taken = ticket(UUID.randomUUID());
+        var last = ticket(UUID.randomUUID());
+        var duplicate = new QueuedBookingServiceImpl.Ticket(UUID.randomUUID(), doctorId, first.slotId, UUID.randomUUID(),
+                OffsetDateTime.now());
+        when(appointmentService.tryCreateAppointment(doctorId, first.slotId, first.patientId))
+                .thenReturn(Optional.of(new AppointmentDto()));
+        // reservado por um lote anterior: o UPDATE condicional não afeta linha
+        when(appointmentService.tryCreateAppointment(doctorId, taken.slotId, taken.patientId)).thenReturn(Optional.empty());
+        when(appointmentService.tryCreateAppointment(doctorId, last.slotId, last.patientId))
+                .thenReturn(Optional.of(new AppointmentDto()));
+
+        service.process(List.of(first, duplicate, taken, last));
+
+        assertEquals(BookingTicketDto.CONFIRMED, first.state.getStatus());
+        assertEquals(BookingTicketDto.CONFIRMED, last.state.getStatus());
+        assertEquals(BookingTicketDto.FAILED, taken.state.getStatus());
+        assertEquals("slot not available", taken.state.getError());
+        // o pedido repetido do mesmo slot falha sem chegar ao banco
+        assertEquals(BookingTicketDto.FAILED, duplicate.state.getStatus());
+        verify(appointmentService, never()).tryCreateAppointment(doctorId, first.slotId, duplicate.patientId);
+        // o perdedor não desfaz o lote: uma única transação, sem refazer um por um
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager, times(1)).commit(any());
+        verify(transactionManager, never()).rollback(any());
+        verify(appointmentService, never()).createAppointment(any(), any(), any());
+    }
+
+    @Test
+    void process_unexpectedFailureInBatch_retriesOneByOne_andFailsOnlyTheCulprit() {
+        properties.setQueueEnabled(false);
+        start();
+        var ok = ticket(UUID.randomUUID());
+        var unknown = ticket(UUID.randomUUID());
+        when(appointmentService.tryCreateAppointment(doctorId, ok.slotId, ok.patientId))
+                .thenReturn(Optional.of(new AppointmentDto()));
+        when(appointmentService.tryCreateAppointment(doctorId, unknown.slotId, unknown.patientId))
+                .thenThrow(new IllegalArgumentException("slot not found"));
+        when(appointmentService.createAppointment(doctorId, ok.slotId, ok.patientId)).thenReturn(new AppointmentDto());
+        when(appointmentService.createAppointment(doctorId, unknown.slotId, unknown.patientId))
+                .thenThrow(new IllegalArgumentException("slot not found"));
+
+        service.process(List.of(ok, unknown));
+
+        assertEquals(BookingTicketDto.CONFIRMED, ok.state.getStatus());
+        assertEquals(BookingTicketDto.FAILED, unknown.state.getStatus());
+        assertEquals("slot not found", unknown.state.getError());
+        verify(appointmentService, times(1)).createAppointment(doctorId, ok.slotId, ok.patientId);
+    }
+
+    @Test
+    void submit_whenPartitionFull_throws() throws Exception {
+        properties.setQueueCapacity(1);
+        var writerBusy = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(appointmentService.tryCreateAppointment(any(), any(), any())).thenAnswer(i -> {
+            writerBusy.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(new AppointmentDto());
+        });
+        start();
+
+        service.submit(doctorId, UUID.randomUUID(), UUID.randomUUID());
+        writerBusy.await(5, TimeUnit.SECONDS);
+        service.submit(doctorId, UUID.randomUUID(), UUID.randomUUID());
+
+        assertThrows(BookingQueueFullException.class, () -> service.submit(doctorId, UUID.randomUUID(), UUID.randomUUID()));
+        release.countDown();
+    }
+
+    private QueuedBookingServiceImpl.Ticket ticket(UUID slotId) {
+        return new QueuedBookingServiceImpl.Ticket(UUID.randomUUID(), doctorId, slotId, UUID.randomUUID(),
+                OffsetDateTime.now());
+    }
+}
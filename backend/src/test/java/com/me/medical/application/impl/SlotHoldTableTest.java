@@ -0,0 +1,119 @@
+package com.me.medical.application.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes da tabela de holds e da expiração pelo timer wheel.
+ */
+class SlotHoldTableTest {
+    private TimerWheel wheel;
+    private SlotHoldTable table;
+    private UUID slotId;
+    private UUID doctorId;
+
+    @BeforeEach
+    void setup() {
+        wheel = new TimerWheel("test-wheel", Duration.ofMillis(10), 8);
+        table = new SlotHoldTable(wheel, Clock.systemUTC(), 2, Duration.ofMinutes(15));
+        slotId = UUID.randomUUID();
+        doctorId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        wheel.close();
+    }
+
+    @Test
+    void acquire_otherPatientRejected_samePatientRenews() {
+        var holder = UUID.randomUUID();
+        var first = table.acquire(slotId, doctorId, holder, Duration.ofMinutes(5));
+
+        assertThrows(IllegalStateException.class,
+            () -> table.acquire(slotId, doctorId, UUID.randomUUID(), Duration.ofMinutes(5)));
+        assertTrue(table.isHeldByOther(slotId, UUID.randomUUID()));
+        assertFalse(table.isHeldByOther(slotId, holder));
+
+        var renewed = table.acquire(slotId, doctorId, holder, Duration.ofMinutes(10));
+        assertTrue(renewed.expiresAt().isAfter(first.expiresAt()));
+        assertEquals(renewed, table.find(slotId).orElseThrow());
+    }
+
+    @Test
+    void expiredHold_isReleasedByWheel_andSlotCanBeHeldAgain() throws Exception {
+        // TTL maior que uma volta do anel (8 x 10ms) para exercitar as rodadas
+        table.acquire(slotId, doctorId, UUID.randomUUID(), Duration.ofMillis(120));
+        assertTrue(table.find(slotId).isPresent());
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (table.find(slotId).isPresent() && System.nanoTime() < deadline) Thread.sleep(10);
+
+        assertTrue(table.find(slotId).isEmpty());
+        var next = UUID.randomUUID();
+        assertEquals(next, table.acquire(slotId, doctorId, next, Duration.ofMinutes(5)).patientId());
+    }
+
+    @Test
+    void release_doesNotRemoveNewerHold() {
+        var holder = UUID.randomUUID();
+        var old = table.acquire(slotId, doctorId, holder, Duration.ofMinutes(5));
+        var renewed = table.acquire(slotId, doctorId, holder, Duration.ofMinutes(6));
+
+        table.release(old);
+
+        assertEquals(renewed, table.find(slotId).orElseThrow());
+    }
+
+    @Test
+    void acquire_limitsActiveHoldsPerPatient_andFreesQuotaOnRelease() {
+        var patient = UUID.randomUUID();
+        var first = table.acquire(UUID.randomUUID(), doctorId, patient, Duration.ofMinutes(5));
+        table.acquire(UUID.randomUUID(), doctorId, patient, Duration.ofMinutes(5));
+
+        var ex = assertThrows(IllegalStateException.class,
+            () -> table.acquire(slotId, doctorId, patient, Duration.ofMinutes(5)));
+        assertEquals("too many holds", ex.getMessage());
+        // renovar um hold que já detém não consome vaga
+        var renewed = table.acquire(first.slotId(), doctorId, patient, Duration.ofMinutes(5));
+
+        table.release(renewed);
+        assertEquals(patient, table.acquire(slotId, doctorId, patient, Duration.ofMinutes(5)).patientId());
+    }
+
+    @Test
+    void renewals_neverExtendPastMaxHoldTime() {
+        var holder = UUID.randomUUID();
+        var first = table.acquire(slotId, doctorId, holder, Duration.ofMinutes(10));
+
+        var renewed = table.acquire(slotId, doctorId, holder, Duration.ofMinutes(20));
+        var again = table.acquire(slotId, doctorId, holder, Duration.ofMinutes(20));
+
+        // o teto conta do primeiro hold: 15 min, não 20 a partir de cada renovação
+        assertEquals(first.heldSince(), again.heldSince());
+        assertEquals(first.heldSince().plus(Duration.ofMinutes(15)), renewed.expiresAt());
+        assertEquals(renewed.expiresAt(), again.expiresAt());
+    }
+
+    @Test
+    void wheel_runsTasksAfterDelay() throws Exception {
+        var ran = new CountDownLatch(1);
+        long start = System.nanoTime();
+        wheel.schedule(ran::countDown, Duration.ofMillis(50));
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(50).toNanos());
+    }
+}
@@ -0,0 +1,131 @@
+package com.me.medical.application.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.me.medical.infra.SlotInterval;
+import com.me.medical.infra.SlotRepository;
+
+/**
+ * Testes do índice em memória de sobreposição de slots.
+ */
+class SlotOverlapIndexTest {
+    // no futuro: o índice só cobre intervalos a partir do aquecimento
+    private static final OffsetDateTime NINE = OffsetDateTime.of(2035, 9, 2, 9, 0, 0, 0, ZoneOffset.UTC);
+
+    private SlotRepository slotRepository;
+    private SlotOverlapIndex index;
+    private UUID doctorId;
+    private UUID slotId;
+
+    @BeforeEach
+    void setup() {
+        slotRepository = mock(SlotRepository.class);
+        index = new SlotOverlapIndex(slotRepository);
+        doctorId = UUID.randomUUID();
+        slotId = UUID.randomUUID();
+    }
+
+    @Test
+    void overlaps_coldDoctor_returnsEmpty() {
+        assertEquals(Optional.empty(), index.overlaps(doctorId, NINE, NINE.plusHours(1), null));
+    }
+
+    @Test
+    void overlaps_afterWarm_answersFromMemory() {
+        when(slotRepository.findIntervalsEndingAfter(eq(doctorId), any()))
+            .thenReturn(List.of(new SlotInterval(slotId, NINE, NINE.plusHours(1))));
+
+        index.warm(doctorId);
+
+        assertEquals(Optional.of(true), index.overlaps(doctorId, NINE.plusMinutes(30), NINE.plusMinutes(90), null));
+        assertEquals(Optional.of(true), index.overlaps(doctorId, NINE.minusMinutes(30), NINE.plusMinutes(1), null));
+        // intervalos semiabertos: encostar no início/fim não é sobreposição
+        assertEquals(Optional.of(false), index.overlaps(doctorId, NINE.plusHours(1), NINE.plusHours(2), null));
+        assertEquals(Optional.of(false), index.overlaps(doctorId, NINE.minusHours(1), NINE, null));
+        // o próprio slot é ignorado em updates
+        assertEquals(Optional.of(false), index.overlaps(doctorId, NINE.plusMinutes(15), NINE.plusMinutes(45), slotId));
+
+        index.warm(doctorId);
+        verify(slotRepository, times(1)).findIntervalsEndingAfter(eq(doctorId), any());
+    }
+
+    @Test
+    void onSavedAndOnDeleted_keepIndexConsistent() {
+        index.warm(doctorId);
+
+        index.onSaved(doctorId, slotId, NINE, NINE.plusHours(1));
+        assertEquals(Optional.of(true), index.overlaps(doctorId, NINE, NINE.plusMinutes(10), null));
+
+        // update movendo o slot libera o horário antigo
+        index.onSaved(doctorId, slotId, NINE.plusHours(3), NINE.plusHours(4));
+        assertEquals(Optional.of(false), index.overlaps(doctorId, NINE, NINE.plusMinutes(10), null));
+        assertEquals(Optional.of(true), index.overlaps(doctorId, NINE.plusHours(3), NINE.plusHours(5), null));
+
+        index.onDeleted(doctorId, slotId);
+        assertEquals(Optional.of(false), index.overlaps(doctorId, NINE.plusHours(3), NINE.plusHours(5), null));
+    }
+
+    @Test
+    void onSaved_conflictingInterval_invalidatesDoctor() {
+        index.warm(doctorId);
+        index.onSaved(doctorId, slotId, NINE, NINE.plusHours(1));
+
+        index.onSaved(doctorId, UUID.randomUUID(), NINE.plusMinutes(30), NINE.plusHours(2));
+
+        assertTrue(index.overlaps(doctorId, NINE, NINE.plusHours(1), null).isEmpty());
+    }
+
+    @Test
+    void warm_legacyOverlappingRows_staysCold() {
+        when(slotRepository.findIntervalsEndingAfter(eq(doctorId), any())).thenReturn(List.of(
+            new SlotInterval(UUID.randomUUID(), NINE, NINE.plusHours(1)),
+            new SlotInterval(UUID.randomUUID(), NINE.plusMinutes(30), NINE.plusHours(2))));
+
+        index.warm(doctorId);
+
+        assertTrue(index.overlaps(doctorId, NINE.plusHours(5), NINE.plusHours(6), null).isEmpty());
+    }
+
+    @Test
+    void warm_writeCommittedDuringLoad_discardsSnapshot() {
+        // a escrita confirma depois da leitura do banco e antes da publicação
+        when(slotRepository.findIntervalsEndingAfter(eq(doctorId), any())).thenAnswer(inv -> {
+            index.onSaved(doctorId, slotId, NINE, NINE.plusHours(1));
+            return List.of();
+        });
+
+        index.warm(doctorId);
+
+        assertTrue(index.overlaps(doctorId, NINE, NINE.plusMinutes(10), null).isEmpty());
+    }
+
+    @Test
+    void warm_loadsOnlyUnfinishedSlots_andLeavesEarlierIntervalsToSql() {
+        var before = OffsetDateTime.now();
+        index.warm(doctorId);
+
+        var after = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(slotRepository).findIntervalsEndingAfter(eq(doctorId), after.capture());
+        assertFalse(after.getValue().isBefore(before));
+        assertTrue(index.overlaps(doctorId, before.minusDays(1), before.minusDays(1).plusHours(1), null).isEmpty());
+        assertEquals(Optional.of(false), index.overlaps(doctorId, NINE, NINE.plusHours(1), null));
+    }
+}
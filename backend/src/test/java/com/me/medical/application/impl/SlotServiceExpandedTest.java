@@ -2,16 +2,26 @@ package com.me.medical.application.impl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -20,14 +30,25 @@ import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.me.medical.application.SlotOverlapException;
+import com.me.medical.application.dto.RawJson;
+import com.me.medical.application.dto.ScheduleTemplateRequest;
+import com.me.medical.application.dto.SlotEvent;
 import com.me.medical.application.dto.SlotDto;
+import com.me.medical.config.SlotProperties;
 import com.me.medical.infra.DoctorRepository;
 import com.me.medical.infra.JpaDoctorEntity;
 import com.me.medical.infra.JpaSlotEntity;
+import com.me.medical.infra.SlotBatchWriter;
+import com.me.medical.infra.SlotInterval;
 import com.me.medical.infra.SlotRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * Testes expandidos para SlotServiceImpl.
  * 
@@ -41,13 +62,20 @@ class SlotServiceExpandedTest {
 
     private SlotRepository slotRepository;
     private DoctorRepository doctorRepository;
+    private SlotBatchWriter slotBatchWriter;
+    private SlotProperties slotProperties;
+    private List<Object> publishedEvents;
     private SlotServiceImpl service;
 
     @BeforeEach
     void setup() {
         slotRepository = mock(SlotRepository.class);
         doctorRepository = mock(DoctorRepository.class);
-        service = new SlotServiceImpl(slotRepository, doctorRepository);
+        slotBatchWriter = mock(SlotBatchWriter.class);
+        slotProperties = new SlotProperties();
+        publishedEvents = new ArrayList<>();
+        service = new SlotServiceImpl(slotRepository, doctorRepository, new SlotOverlapIndex(slotRepository),
+                slotBatchWriter, new ServiceMetrics(new SimpleMeterRegistry()), slotProperties, publishedEvents::add);
     }
 
     @Test
@@ -162,6 +190,38 @@ class SlotServiceExpandedTest {
         verify(slotRepository).save(any(JpaSlotEntity.class));
     }
 
+    @Test
+    void metadata_requestJson_isStoredAndReturnedRaw() throws Exception {
+        var mapper = new ObjectMapper();
+        var json = "{\"room\":\"Sala 203\",\"tags\":[\"retorno\"],\"cost\":150.0}";
+        var dto = mapper.readValue("{\"start\":null,\"metadata\":" + json + "}", SlotDto.class);
+        assertEquals(new RawJson(json), dto.getMetadata());
+
+        var doctorId = UUID.randomUUID();
+        var start = OffsetDateTime.of(2025, 9, 5, 10, 0, 0, 0, ZoneOffset.UTC);
+        dto.setStart(start);
+        dto.setEnd(start.plusMinutes(30));
+        when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(new JpaDoctorEntity()));
+        when(slotRepository.findOverlappingSlots(doctorId, start, dto.getEnd())).thenReturn(Collections.emptyList());
+        when(slotRepository.save(any(JpaSlotEntity.class))).thenAnswer(i -> i.getArgument(0));
+
+        var created = service.createSlot(doctorId, dto);
+
+        // gravado como veio e devolvido sem parse: a resposta contém o mesmo JSON
+        var captor = org.mockito.ArgumentCaptor.forClass(JpaSlotEntity.class);
+        verify(slotRepository).save(captor.capture());
+        assertEquals(json, captor.getValue().getMetadata());
+        var response = mapper.writeValueAsString(Map.of("metadata", created.getMetadata()));
+        assertEquals("{\"metadata\":" + json + "}", response);
+    }
+
+    @Test
+    void metadata_malformedRequestJson_isRejectedOnRead() {
+        var mapper = new ObjectMapper();
+        assertThrows(JsonProcessingException.class,
+            () -> mapper.readValue("{\"metadata\":{\"room\":}", SlotDto.class));
+    }
+
     @Test
     void updateSlot_success() {
         var doctorId = UUID.randomUUID();
@@ -277,6 +337,29 @@ class SlotServiceExpandedTest {
         verify(slotRepository).delete(slot);
     }
 
+    @Test
+    void slotChanges_publishIncrementalEvents() {
+        var doctorId = UUID.randomUUID();
+        var doctor = new JpaDoctorEntity();
+        doctor.setId(doctorId);
+        var dto = new SlotDto();
+        dto.setStart(OffsetDateTime.of(2025, 9, 1, 10, 0, 0, 0, ZoneOffset.UTC));
+        dto.setEnd(dto.getStart().plusMinutes(30));
+        when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
+        when(slotRepository.findOverlappingSlots(any(), any(), any())).thenReturn(Collections.emptyList());
+        when(slotRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        var created = service.createSlot(doctorId, dto);
+        var entity = new JpaSlotEntity();
+        entity.setDoctor(doctor);
+        when(slotRepository.findById(created.getId())).thenReturn(Optional.of(entity));
+        service.deleteSlot(doctorId, created.getId());
+
+        assertEquals(List.of(
+                SlotEvent.created(doctorId, created.getId(), dto.getStart(), dto.getEnd(), "available"),
+                SlotEvent.deleted(doctorId, created.getId())), publishedEvents);
+    }
+
     @Test
     void deleteSlot_slotNotFound_throws() {
         var doctorId = UUID.randomUUID();
@@ -312,32 +395,6 @@ class SlotServiceExpandedTest {
         verify(slotRepository, never()).delete(any());
     }
 
-    @Test
-    void listSlots_success() {
-        var doctorId = UUID.randomUUID();
-        var slot1 = new JpaSlotEntity();
-        var slot2 = new JpaSlotEntity();
-
-        when(slotRepository.findByDoctorId(doctorId)).thenReturn(List.of(slot1, slot2));
-
-        List<SlotDto> slots = service.listSlots(doctorId);
-
-        assertEquals(2, slots.size());
-        verify(slotRepository).findByDoctorId(doctorId);
-    }
-
-    @Test
-    void listSlots_emptyResult() {
-        var doctorId = UUID.randomUUID();
-
-        when(slotRepository.findByDoctorId(doctorId)).thenReturn(Collections.emptyList());
-
-        List<SlotDto> slots = service.listSlots(doctorId);
-
-        assertEquals(0, slots.size());
-        assertNotNull(slots); // deve retornar lista vazia, não null
-    }
-
     @Test
     void createSlot_multipleOverlappingSlots_throws() {
         // Teste cenário onde há múltiplos slots sobrepostos
@@ -384,4 +441,161 @@ class SlotServiceExpandedTest {
         assertEquals(end, created.getEnd());
         assertEquals("available", created.getStatus());
     }
+
+    @Test
+    void generateSlots_weeklyTemplate_skipsBreaksAndBatchInserts() {
+        var doctorId = UUID.randomUUID();
+        var template = new ScheduleTemplateRequest();
+        template.setWeekdays(List.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY));
+        template.setFromDate(LocalDate.of(2025, 9, 1)); // segunda-feira
+        template.setToDate(LocalDate.of(2025, 9, 7));
+        template.setDayStart(LocalTime.of(8, 0));
+        template.setDayEnd(LocalTime.of(12, 0));
+        template.setSlotMinutes(60);
+        var lunch = new ScheduleTemplateRequest.Break();
+        lunch.setStart(LocalTime.of(10, 0));
+        lunch.setEnd(LocalTime.of(11, 0));
+        template.setBreaks(List.of(lunch));
+
+        when(doctorRepository.existsById(doctorId)).thenReturn(true);
+        when(slotRepository.findIntervalsOverlapping(eq(doctorId), any(), any())).thenReturn(Collections.emptyList());
+
+        int created = service.generateSlots(doctorId, template);
+
+        // 08-09, 09-10 e 11-12 na segunda e na quarta
+        assertEquals(6, created);
+        verify(slotBatchWriter).insertAvailable(eq(doctorId), anyList(), isNull());
+        verify(slotRepository, never()).save(any());
+    }
+
+    @Test
+    void generateSlots_conflictWithExistingSlot_throwsAndInsertsNothing() {
+        var doctorId = UUID.randomUUID();
+        var template = new ScheduleTemplateRequest();
+        template.setWeekdays(List.of(DayOfWeek.MONDAY));
+        template.setFromDate(LocalDate.of(2025, 9, 1));
+        template.setToDate(LocalDate.of(2025, 9, 1));
+        template.setDayStart(LocalTime.of(8, 0));
+        template.setDayEnd(LocalTime.of(10, 0));
+        template.setSlotMinutes(30);
+
+        var existingStart = OffsetDateTime.of(2025, 9, 1, 9, 15, 0, 0, ZoneOffset.UTC);
+        when(doctorRepository.existsById(doctorId)).thenReturn(true);
+        when(slotRepository.findIntervalsOverlapping(eq(doctorId), any(), any()))
+                .thenReturn(List.of(new SlotInterval(UUID.randomUUID(), existingStart, existingStart.plusMinutes(30))));
+
+        assertThrows(SlotOverlapException.class, () -> service.generateSlots(doctorId, template));
+        verify(slotBatchWriter, never()).insertAvailable(any(), anyList(), any());
+    }
+
+    @Test
+    void createSlot_exclusionConstraintViolation_translatedWithoutOverlapQuery() {
+        slotProperties.setOverlapConstraint(true);
+        var doctorId = UUID.randomUUID();
+        var doctor = new JpaDoctorEntity();
+        doctor.setId(doctorId);
+        var dto = new SlotDto();
+        dto.setStart(OffsetDateTime.of(2025, 9, 1, 10, 0, 0, 0, ZoneOffset.UTC));
+        dto.setEnd(dto.getStart().plusMinutes(30));
+
+        when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
+        when(slotRepository.save(any())).thenReturn(new JpaSlotEntity());
+        doThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("conflicting key value violates exclusion constraint \"slots_no_overlap\"", "23P01")))
+            .when(slotRepository).flush();
+
+        assertThrows(SlotOverlapException.class, () -> service.createSlot(doctorId, dto));
+        verify(slotRepository, never()).findOverlappingSlots(any(), any(), any());
+    }
+
+    @Test
+    void createSlot_withConstraint_writesWithoutReadingExistingSlots() {
+        slotProperties.setOverlapConstraint(true);
+        var doctorId = UUID.randomUUID();
+        var doctor = new JpaDoctorEntity();
+        doctor.setId(doctorId);
+        var dto = new SlotDto();
+        dto.setStart(OffsetDateTime.of(2025, 9, 1, 10, 0, 0, 0, ZoneOffset.UTC));
+        dto.setEnd(dto.getStart().plusMinutes(30));
+        var saved = new JpaSlotEntity();
+        saved.setId(UUID.randomUUID());
+        saved.setDoctor(doctor);
+        saved.setStartTime(dto.getStart());
+        saved.setEndTime(dto.getEnd());
+
+        when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
+        when(slotRepository.save(any())).thenReturn(saved);
+
+        service.createSlot(doctorId, dto);
+        service.createSlot(doctorId, dto);
+
+        verify(slotRepository, times(2)).save(any());
+        verify(slotRepository, never()).findIntervalsEndingAfter(any(), any());
+        verify(slotRepository, never()).findOverlappingSlots(any(), any(), any());
+    }
+
+    @Test
+    void generateSlots_batchConstraintViolation_translated_otherViolationsPropagate() {
+        slotProperties.setOverlapConstraint(true);
+        var doctorId = UUID.randomUUID();
+        var template = new ScheduleTemplateRequest();
+        template.setWeekdays(List.of(DayOfWeek.MONDAY));
+        template.setFromDate(LocalDate.of(2025, 9, 1));
+        template.setToDate(LocalDate.of(2025, 9, 1));
+        template.setDayStart(LocalTime.of(8, 0));
+        template.setDayEnd(LocalTime.of(10, 0));
+        template.setSlotMinutes(30);
+        when(doctorRepository.existsById(doctorId)).thenReturn(true);
+
+        // lote JDBC: o erro do Postgres chega encadeado via getNextException
+        var batch = new SQLException("Batch entry 0 was aborted", "23P01");
+        batch.setNextException(new SQLException("violates exclusion constraint \"slots_no_overlap\"", "23P01"));
+        doThrow(new DataIntegrityViolationException("batch", batch))
+            .when(slotBatchWriter).insertAvailable(eq(doctorId), anyList(), any());
+        assertThrows(SlotOverlapException.class, () -> service.generateSlots(doctorId, template));
+        verify(slotRepository, never()).findIntervalsOverlapping(any(), any(), any());
+
+        var foreignKey = new DataIntegrityViolationException("fk",
+                new SQLException("violates foreign key constraint \"slots_doctor_id_fkey\"", "23503"));
+        doThrow(foreignKey)
+            .when(slotBatchWriter).insertAvailable(eq(doctorId), anyList(), any());
+        assertThrows(DataIntegrityViolationException.class, () -> service.generateSlots(doctorId, template));
+    }
+
+    @Test
+    void listSlotsPage_moreRowsThanLimit_returnsCursorOfLastItem() {
+        var doctorId = UUID.randomUUID();
+        var from = OffsetDateTime.of(2025, 9, 1, 8, 0, 0, 0, ZoneOffset.UTC);
+        var rows = new ArrayList<JpaSlotEntity>();
+        for (int i = 0; i < 3; i++) {
+            var slot = new JpaSlotEntity();
+            slot.setId(UUID.randomUUID());
+            slot.setStartTime(from.plusHours(i));
+            slot.setEndTime(from.plusHours(i).plusMinutes(30));
+            slot.setStatus("available");
+            rows.add(slot);
+        }
+        when(slotRepository.findPageByStatus(eq(doctorId), eq("available"), eq(from), eq(SlotCursor.MIN_ID), any(), any()))
+                .thenReturn(rows);
+
+        var page = service.listSlots(doctorId, "available", from, null, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        var cursor = SlotCursor.decode(page.getNextCursor());
+        assertEquals(rows.get(1).getId(), cursor.id());
+        assertEquals(rows.get(1).getStartTime().toInstant(), cursor.start().toInstant());
+
+        // página seguinte parte do cursor, e sem linha extra não há próximo cursor
+        when(slotRepository.findPageByStatus(eq(doctorId), eq("available"), eq(cursor.start()), eq(cursor.id()), any(), any()))
+                .thenReturn(List.of(rows.get(2)));
+        var next = service.listSlots(doctorId, "available", null, null, page.getNextCursor(), 2);
+        assertEquals(1, next.getItems().size());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void listSlotsPage_invalidCursor_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.listSlots(UUID.randomUUID(), null, null, null, "not-a-cursor", null));
+    }
 }
@@ -17,13 +17,17 @@ import org.junit.jupiter.api.Test;
 
 import com.me.medical.application.SlotOverlapException;
 import com.me.medical.application.dto.SlotDto;
+import com.me.medical.config.SlotProperties;
 import com.me.medical.infra.DoctorRepository;
 import com.me.medical.infra.JpaDoctorEntity;
 import com.me.medical.infra.JpaSlotEntity;
+import com.me.medical.infra.SlotBatchWriter;
 import com.me.medical.infra.SlotRepository;
 
 import static org.mockito.Mockito.mock;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 class SlotServiceImplTest {
     private SlotRepository slotRepository;
     private DoctorRepository doctorRepository;
@@ -33,7 +37,8 @@ class SlotServiceImplTest {
     void setup() {
         slotRepository = mock(SlotRepository.class);
         doctorRepository = mock(DoctorRepository.class);
-        service = new SlotServiceImpl(slotRepository, doctorRepository);
+        service = new SlotServiceImpl(slotRepository, doctorRepository, new SlotOverlapIndex(slotRepository),
+                mock(SlotBatchWriter.class), new ServiceMetrics(new SimpleMeterRegistry()), new SlotProperties(), event -> { });
     }
 
     @Test
@@ -0,0 +1,221 @@
+package com.me.medical.application.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.me.medical.application.AppointmentService;
+import com.me.medical.application.AuthService;
+import com.me.medical.application.SlotService;
+import com.me.medical.application.UserService;
+import com.me.medical.application.dto.CreateAppointmentRequest;
+import com.me.medical.infra.DoctorRepository;
+import com.me.medical.infra.JpaSlotEntity;
+import com.me.medical.infra.PatientRepository;
+import com.me.medical.infra.SlotRepository;
+import com.me.medical.infra.UserRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Número de comandos SQL por método de serviço, com as associações lazy, os grafos de
+ * entidade (booking, profile) e as projeções das listagens. Conta toda chamada a {@code prepareStatement} feita
+ * pela thread do teste, inclusive o INSERT em lote via JdbcTemplate; o preenchimento da lista
+ * de espera roda em outra thread e fica de fora.
+ *
+ * Usa os usuários do {@code DataSeeder} e um H2 em memória no modo PostgreSQL.
+ */
+@SpringBootTest(properties = {
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    // o domínio JSONB permite criar a coluna metadata (columnDefinition = "jsonb") no H2
+    "spring.datasource.url=jdbc:h2:mem:statements;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+        + "INIT=CREATE DOMAIN IF NOT EXISTS JSONB AS JSON",
+    // o login assina o token com HMAC-SHA256, que exige chave de 256 bits
+    "jwt.secret=statement-count-test-secret-key-with-256-bits"
+})
+@ActiveProfiles("test")
+class StatementCountTest {
+    private static final AtomicInteger STATEMENTS = new AtomicInteger();
+    private static volatile Thread measured;
+    private static final AtomicInteger SLOT_SEQUENCE = new AtomicInteger();
+    private static final OffsetDateTime BASE = OffsetDateTime.of(2031, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private SlotService slotService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private SlotRepository slotRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private UUID doctorId;
+    private UUID patientId;
+
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ds ? proxy(DataSource.class, ds) : bean;
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (p, method, args) -> {
+            var result = invoke(method, target, args);
+            if (result instanceof Connection c) return proxy(Connection.class, c);
+            if (method.getName().startsWith("prepare") && Thread.currentThread() == measured) {
+                STATEMENTS.incrementAndGet();
+            }
+            return result;
+        });
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        var doctorUser = userRepository.findByEmail("doctor@example.com").orElseThrow();
+        var patientUser = userRepository.findByEmail("patient@example.com").orElseThrow();
+        doctorId = doctorRepository.findByUserId(doctorUser.getId()).get(0).getId();
+        patientId = patientRepository.findByUserId(patientUser.getId()).get(0).getId();
+    }
+
+    @Test
+    void createAppointment_locksSlotAndLoadsOnlyWhatItWrites() {
+        var slotId = newSlot();
+
+        // slot FOR UPDATE, médico, paciente, UPDATE do slot, INSERT do agendamento
+        assertStatements(5, () -> appointmentService.createAppointment(doctorId, slotId, patientId));
+    }
+
+    @Test
+    void createAppointments_oneLockQueryAndOneBatchInsert() {
+        var items = List.of(item(newSlot()), item(newSlot()), item(newSlot()));
+
+        // paciente, slots FOR UPDATE (com os médicos), UPDATE em lote, INSERT em lote
+        assertStatements(4, () -> appointmentService.createAppointments(items, patientId));
+    }
+
+    @Test
+    void createAppointments_keepsEntitiesOfTheOuterTransactionManaged() {
+        var items = List.of(item(newSlot()), item(newSlot()));
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            var doctor = doctorRepository.findById(doctorId).orElseThrow();
+            appointmentService.createAppointments(items, patientId);
+            assertTrue(entityManager.contains(doctor));
+        });
+    }
+
+    @Test
+    void cancelAppointment_locksAppointmentThenSlot() {
+        var created = appointmentService.createAppointment(doctorId, newSlot(), patientId);
+
+        // agendamento FOR UPDATE, slot FOR UPDATE, médico (DTO), UPDATE do slot, UPDATE do agendamento
+        assertStatements(5, () -> appointmentService.cancelAppointment(created.getId(), patientId));
+    }
+
+    @Test
+    void rescheduleAppointment_locksBothSlotsInOneQuery() {
+        var created = appointmentService.createAppointment(doctorId, newSlot(), patientId);
+        var target = newSlot();
+
+        // agendamento FOR UPDATE, dois slots FOR UPDATE (com o médico), 2 UPDATEs de slot, UPDATE do agendamento
+        assertStatements(5, () -> appointmentService.rescheduleAppointment(created.getId(), doctorId, target, patientId));
+    }
+
+    @Test
+    void listings_areSingleSelects() {
+        appointmentService.createAppointment(doctorId, newSlot(), patientId);
+
+        assertStatements(1, () -> appointmentService.listByPatient(patientId, 0, 20));
+        assertStatements(1, () -> appointmentService.listByDoctor(doctorId, BASE, null, null, 20));
+        assertStatements(1, () -> slotService.listSlots(doctorId, "available", BASE, null, null, 20));
+    }
+
+    @Test
+    void profileAndLogin_loadUserWithRoleInOneSelect() {
+        // usuário + role (grafo User.profile), perfil do médico
+        assertStatements(2, () -> userService.getProfile("doctor@example.com"));
+        assertStatements(2, () -> authService.login("doctor@example.com", "doctorpass"));
+    }
+
+    private void assertStatements(int expected, Supplier<?> call) {
+        STATEMENTS.set(0);
+        measured = Thread.currentThread();
+        try {
+            call.get();
+        } finally {
+            measured = null;
+        }
+        assertEquals(expected, STATEMENTS.get());
+    }
+
+    private UUID newSlot() {
+        var start = BASE.plusHours(SLOT_SEQUENCE.getAndIncrement());
+        var slot = new JpaSlotEntity();
+        slot.setId(UUID.randomUUID());
+        slot.setDoctor(doctorRepository.getReferenceById(doctorId));
+        slot.setStartTime(start);
+        slot.setEndTime(start.plusMinutes(30));
+        slot.setStatus("available");
+        slot.setCreatedAt(OffsetDateTime.now());
+        return slotRepository.save(slot).getId();
+    }
+
+    private CreateAppointmentRequest item(UUID slotId) {
+        var item = new CreateAppointmentRequest();
+        item.setDoctorId(doctorId);
+        item.setSlotId(slotId);
+        return item;
+    }
+}
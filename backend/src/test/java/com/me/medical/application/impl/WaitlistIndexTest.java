@@ -0,0 +1,86 @@
+package com.me.medical.application.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes das filas de espera em memória.
+ */
+class WaitlistIndexTest {
+    // no futuro: janelas já encerradas são descartadas pelo índice
+    private static final OffsetDateTime NINE = OffsetDateTime.of(2035, 9, 2, 9, 0, 0, 0, ZoneOffset.UTC);
+
+    private WaitlistIndex index;
+    private UUID doctorId;
+
+    @BeforeEach
+    void setup() {
+        index = new WaitlistIndex();
+        doctorId = UUID.randomUUID();
+    }
+
+    @Test
+    void claimMatch_picksEarliestEntryWhoseWindowContainsSlot() {
+        var narrow = entry(NINE.plusHours(3), NINE.plusHours(4), 1);
+        var wide = entry(NINE, NINE.plusHours(8), 2);
+        var wideLater = entry(NINE, NINE.plusHours(8), 3);
+        index.add(wideLater);
+        index.add(narrow);
+        index.add(wide);
+
+        // 10:00-10:30 não cabe na janela estreita (12-13h): vence a mais antiga das largas
+        assertEquals(wide, index.claimMatch(doctorId, NINE.plusHours(1), NINE.plusHours(1).plusMinutes(30)));
+        assertEquals(narrow, index.claimMatch(doctorId, NINE.plusHours(3), NINE.plusHours(3).plusMinutes(30)));
+        assertEquals(1, index.size(doctorId));
+    }
+
+    @Test
+    void claimMatch_slotCrossingWindowEnd_doesNotMatch() {
+        index.add(entry(NINE, NINE.plusHours(1), 1));
+
+        assertNull(index.claimMatch(doctorId, NINE.plusMinutes(45), NINE.plusMinutes(75)));
+        assertNull(index.claimMatch(UUID.randomUUID(), NINE, NINE.plusMinutes(30)));
+        assertEquals(1, index.size(doctorId));
+    }
+
+    @Test
+    void claimedEntry_returnedWithAdd_keepsItsPriority() {
+        var first = entry(NINE, NINE.plusHours(2), 1);
+        var second = entry(NINE, NINE.plusHours(2), 2);
+        index.add(first);
+        index.add(second);
+
+        var claimed = index.claimMatch(doctorId, NINE, NINE.plusMinutes(30));
+        index.add(claimed);
+
+        assertEquals(first, index.claimMatch(doctorId, NINE, NINE.plusMinutes(30)));
+    }
+
+    @Test
+    void endedWindows_areDroppedOnClaimAndExpire() {
+        var now = OffsetDateTime.now();
+        var ended = entry(now.minusHours(2), now.minusHours(1), 1);
+        var open = entry(now.plusHours(1), now.plusHours(3), 2);
+        index.add(ended);
+        index.add(open);
+
+        // a entrada vencida é descartada ao ser percorrida, mesmo sem casar
+        assertNull(index.claimMatch(doctorId, now.plusHours(5), now.plusHours(6)));
+        assertEquals(1, index.size(doctorId));
+
+        index.add(ended);
+        assertEquals(1, index.expire(now));
+        assertEquals(open, index.claimMatch(doctorId, now.plusHours(1), now.plusHours(2)));
+    }
+
+    private WaitlistIndex.Entry entry(OffsetDateTime from, OffsetDateTime to, int arrival) {
+        return new WaitlistIndex.Entry(UUID.randomUUID(), doctorId, UUID.randomUUID(), from, to, NINE.minusDays(1).plusMinutes(arrival));
+    }
+}
@@ -0,0 +1,133 @@
+package com.me.medical.application.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.me.medical.application.AppointmentService;
+import com.me.medical.application.dto.AppointmentDto;
+import com.me.medical.application.dto.SlotEvent;
+import com.me.medical.infra.DoctorRepository;
+import com.me.medical.infra.PatientRepository;
+import com.me.medical.infra.WaitlistEntryRepository;
+
+/**
+ * Testes do preenchimento automático de slots liberados pela lista de espera.
+ */
+class WaitlistServiceImplTest {
+    private WaitlistEntryRepository repository;
+    private WaitlistIndex index;
+    private AppointmentService appointmentService;
+    private PatientRepository patientRepository;
+    private WaitlistServiceImpl service;
+    private UUID doctorId;
+    private SlotEvent released;
+
+    @BeforeEach
+    void setup() {
+        repository = mock(WaitlistEntryRepository.class);
+        index = new WaitlistIndex();
+        appointmentService = mock(AppointmentService.class);
+        patientRepository = mock(PatientRepository.class);
+        service = new WaitlistServiceImpl(repository, index, mock(DoctorRepository.class), patientRepository,
+                appointmentService, mock(PlatformTransactionManager.class));
+        doctorId = UUID.randomUUID();
+        var start = OffsetDateTime.now().plusDays(1);
+        released = SlotEvent.released(doctorId, UUID.randomUUID(), start, start.plusMinutes(30));
+    }
+
+    @Test
+    void fill_booksFirstMatchingPatientAndMarksEntryFulfilled() {
+        var entry = entry(1);
+        index.add(entry);
+        var appointment = new AppointmentDto();
+        appointment.setId(UUID.randomUUID());
+        when(appointmentService.createAppointment(doctorId, released.slotId(), entry.patientId())).thenReturn(appointment);
+        when(repository.markFulfilled(entry.id(), appointment.getId())).thenReturn(1);
+
+        service.fill(released);
+
+        verify(repository).markFulfilled(entry.id(), appointment.getId());
+        assertEquals(0, index.size(doctorId));
+    }
+
+    @Test
+    void fill_slotTakenMeanwhile_keepsEntryQueued() {
+        var entry = entry(1);
+        index.add(entry);
+        when(appointmentService.createAppointment(any(), any(), any())).thenThrow(new IllegalStateException("slot not available"));
+
+        service.fill(released);
+
+        assertEquals(1, index.size(doctorId));
+        verify(repository, never()).markCancelled(any());
+    }
+
+    @Test
+    void fill_patientGone_dropsEntryAndTriesNext() {
+        var gone = entry(1);
+        var next = entry(2);
+        index.add(gone);
+        index.add(next);
+        var appointment = new AppointmentDto();
+        appointment.setId(UUID.randomUUID());
+        when(appointmentService.createAppointment(doctorId, released.slotId(), gone.patientId()))
+                .thenThrow(new IllegalArgumentException("patient not found"));
+        when(appointmentService.createAppointment(doctorId, released.slotId(), next.patientId())).thenReturn(appointment);
+        when(repository.markFulfilled(next.id(), appointment.getId())).thenReturn(1);
+
+        service.fill(released);
+
+        verify(repository).markCancelled(gone.id());
+        verify(repository).markFulfilled(next.id(), appointment.getId());
+        assertEquals(0, index.size(doctorId));
+    }
+
+    @Test
+    void fill_slotRemovedBeforeFill_requeuesEntryAndStops() {
+        var first = entry(1);
+        var second = entry(2);
+        index.add(first);
+        index.add(second);
+        when(patientRepository.existsById(any())).thenReturn(true);
+        when(appointmentService.createAppointment(any(), any(), any()))
+                .thenThrow(new IllegalArgumentException("slot not found"));
+
+        service.fill(released);
+
+        // nenhuma entrada é encerrada e a fila fica intacta, na mesma ordem
+        verify(repository, never()).markCancelled(any());
+        verify(appointmentService, times(1)).createAppointment(any(), any(), any());
+        assertEquals(2, index.size(doctorId));
+        assertEquals(first, index.claimMatch(doctorId, released.start(), released.end()));
+    }
+
+    @Test
+    void expireEnded_dropsEndedWindowsFromIndexAndTable() {
+        var ended = new WaitlistIndex.Entry(UUID.randomUUID(), doctorId, UUID.randomUUID(),
+                OffsetDateTime.now().minusHours(2), OffsetDateTime.now().minusMinutes(1), OffsetDateTime.now().minusHours(3));
+        index.add(ended);
+        index.add(entry(1));
+
+        service.expireEnded();
+
+        assertEquals(1, index.size(doctorId));
+        verify(repository).markExpired(any());
+    }
+
+    private WaitlistIndex.Entry entry(int arrival) {
+        return new WaitlistIndex.Entry(UUID.randomUUID(), doctorId, UUID.randomUUID(), released.start().minusHours(1),
+                released.end().plusHours(1), OffsetDateTime.now().minusHours(1).plusMinutes(arrival));
+    }
+}
@@ -0,0 +1,56 @@
+package com.me.medical.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Testes do cache de tokens verificados: expiração e despejo aproximado por uso.
+ */
+class VerifiedTokenCacheTest {
+    private static final long FUTURE = System.currentTimeMillis() + 3_600_000;
+
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setup() {
+        var props = new JwtProperties();
+        props.setCacheMaxSize(10);
+        cache = new VerifiedTokenCache(props, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void get_dropsExpiredToken() {
+        cache.put("expired", token(System.currentTimeMillis() - 1));
+
+        assertNull(cache.get("expired"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_overCapacity_evictsLeastRecentlyUsedAndKeepsTokensInUse() throws InterruptedException {
+        for (int i = 0; i < 10; i++) cache.put("t" + i, token(FUTURE));
+        Thread.sleep(1);
+        // t0 e t1 são os mais antigos inseridos, mas foram usados por último
+        assertNotNull(cache.get("t0"));
+        assertNotNull(cache.get("t1"));
+
+        cache.put("t10", token(FUTURE));
+
+        assertTrue(cache.size() <= 10);
+        assertNotNull(cache.get("t0"));
+        assertNotNull(cache.get("t1"));
+        assertNotNull(cache.get("t10"));
+        assertNull(cache.get("t2"));
+    }
+
+    private static VerifiedTokenCache.VerifiedToken token(long expiresAtMillis) {
+        return new VerifiedTokenCache.VerifiedToken("user@example.com", "ROLE_PATIENT", null, expiresAtMillis);
+    }
+}
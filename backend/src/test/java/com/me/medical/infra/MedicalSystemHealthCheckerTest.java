@@ -0,0 +1,95 @@
+package com.me.medical.infra;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.DriverManager;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.me.medical.config.HealthCheckProperties;
+
+/**
+ * Testes do health check: refresh único em segundo plano e pool que recusa em vez de acumular.
+ */
+class MedicalSystemHealthCheckerTest {
+    private DataSource dataSource;
+    private HealthCheckProperties props;
+    private CountDownLatch release;
+    private volatile boolean blocking;
+    private MedicalSystemHealthChecker checker;
+
+    @BeforeEach
+    void setup() throws Exception {
+        release = new CountDownLatch(1);
+        dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(i -> {
+            if (blocking) release.await(5, TimeUnit.SECONDS);
+            return DriverManager.getConnection("jdbc:h2:mem:health-check;DB_CLOSE_DELAY=-1");
+        });
+        props = new HealthCheckProperties();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (checker != null) checker.destroy();
+    }
+
+    @Test
+    void check_afterTtl_servesLastResultWhileASingleRefreshRuns() throws Exception {
+        props.setCacheTtlMs(50);
+        checker = new MedicalSystemHealthChecker(dataSource, props);
+        assertEquals(false, checker.check().get("cached"));
+
+        blocking = true;
+        Thread.sleep(60);
+        for (int i = 0; i < 5; i++) {
+            // nenhum probe espera o banco travado: todos recebem o resultado anterior
+            var health = checker.check();
+            assertEquals("UP", health.get("status"));
+            assertEquals(true, health.get("cached"));
+        }
+
+        blocking = false;
+        release.countDown();
+        Thread.sleep(200);
+        // uma verificação inicial e um único refresh, cada um com duas conexões
+        verify(dataSource, times(4)).getConnection();
+    }
+
+    @Test
+    void check_whileChecksAreStuck_rejectsNewWorkInsteadOfQueueing() throws Exception {
+        props.setCacheTtlMs(0);
+        props.setCheckTimeoutMs(100);
+        blocking = true;
+        checker = new MedicalSystemHealthChecker(dataSource, props);
+
+        // o primeiro refresh prende as duas threads e o segundo ocupa a fila
+        assertEquals("TIMEOUT", database(checker.check()).get("status"));
+        assertEquals("TIMEOUT", database(checker.check()).get("status"));
+
+        long start = System.currentTimeMillis();
+        var health = checker.check();
+        assertEquals("DOWN", health.get("status"));
+        assertEquals("BUSY", database(health).get("status"));
+        assertTrue(System.currentTimeMillis() - start < 100);
+        verify(dataSource, times(2)).getConnection();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> database(Map<String, Object> health) {
+        return (Map<String, Object>) health.get("database");
+    }
+}
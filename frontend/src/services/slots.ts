@@ -15,9 +15,18 @@ export interface SlotDTO {
   metadata?: Record<string, any>;
 }
 
+// a listagem é paginada: segue o cursor do header X-Next-Cursor até a última página
 export async function listDoctorSlots(doctorId: string) {
-  const res = await api.get(`/doctors/${doctorId}/slots`);
-  return res.data as SlotDTO[];
+  const slots: SlotDTO[] = [];
+  let cursor: string | undefined;
+  do {
+    const res = await api.get(`/doctors/${doctorId}/slots`, {
+      params: cursor ? { cursor } : undefined,
+    });
+    slots.push(...(res.data as SlotDTO[]));
+    cursor = res.headers["x-next-cursor"] || undefined;
+  } while (cursor);
+  return slots;
 }
 
 export async function createDoctorSlot(